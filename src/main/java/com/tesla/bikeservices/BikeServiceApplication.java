@@ -3,7 +3,9 @@ package com.tesla.bikeservices;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableAsync
+@EnableScheduling
 @SpringBootApplication
 public class BikeServiceApplication {
 
@@ -0,0 +1,33 @@
+package com.tesla.bikeservices.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tesla.bikeservices.response.ApiResponseSerializer;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) alongside JSON on every
+ * controller, picked by the Accept and Content-Type headers. Both mappers start from Boot's builder, so binary
+ * responses carry the same modules and settings as JSON, e.g. ISO-8601 timestamps. Only the binary mappers
+ * stream the envelope with {@link ApiResponseSerializer}, which drops the Page internals from data.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory())
+                .postConfigurer(mapper -> mapper.registerModule(ApiResponseSerializer.module())).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory())
+                .postConfigurer(mapper -> mapper.registerModule(ApiResponseSerializer.module())).build());
+    }
+}
@@ -0,0 +1,27 @@
+package com.tesla.bikeservices.config;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Publishes Hibernate statistics, including hits, misses and puts per second-level cache region, as the
+ * {@code hibernate.*} metrics while the {@code l2cache} profile is active. The profile turns the cache and the
+ * statistics on (see application-l2cache.properties); without it the cached entities are always read from the
+ * database.
+ */
+@Configuration
+@Profile("l2cache")
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernateMetrics hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", List.of());
+    }
+}
@@ -1,9 +1,12 @@
 package com.tesla.bikeservices.controller;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,13 +15,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.tesla.bikeservices.dto.RosterResult;
+import com.tesla.bikeservices.dto.RosterTemplateDTO;
+import com.tesla.bikeservices.dto.SlotWindow;
 import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.SparseFields;
 import com.tesla.bikeservices.response.ApiResponse;
+import com.tesla.bikeservices.response.EntityTags;
 import com.tesla.bikeservices.service.AppointmentSlotService;
+import com.tesla.bikeservices.service.RosterService;
+import com.tesla.bikeservices.service.ServiceTypeService;
 
 import jakarta.validation.Valid;
 
@@ -26,10 +40,18 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/appointment-slots")
 public class AppointmentSlotController {
 
+    private static final int MAX_WINDOWS = 50;
+    private static final int MAX_SEARCH_DAYS = 92;
+
     private final AppointmentSlotService appointmentSlotService;
+    private final RosterService rosterService;
+    private final ServiceTypeService serviceTypeService;
 
-    public AppointmentSlotController(AppointmentSlotService appointmentSlotService) {
+    public AppointmentSlotController(AppointmentSlotService appointmentSlotService, RosterService rosterService,
+                                     ServiceTypeService serviceTypeService) {
         this.appointmentSlotService = appointmentSlotService;
+        this.rosterService = rosterService;
+        this.serviceTypeService = serviceTypeService;
     }
 
     @PostMapping
@@ -39,24 +61,42 @@ public class AppointmentSlotController {
                 .body(ApiResponse.success("Appointment slot created successfully", savedSlot));
     }
 
+    @PostMapping("/roster")
+    public ResponseEntity<ApiResponse<RosterResult>> generateRosterSlots(@Valid @RequestBody RosterTemplateDTO template) {
+        RosterResult result = rosterService.generateSlots(template);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(result.getCreated() + " slots created, " + result.getSkipped() + " skipped", result));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<AppointmentSlot>> getAppointmentSlot(@PathVariable long id) {
+    public ResponseEntity<ApiResponse<AppointmentSlot>> getAppointmentSlot(@PathVariable long id, WebRequest request) {
         AppointmentSlot slot = appointmentSlotService.getAppointmentSlot(id);
-        return ResponseEntity.ok(ApiResponse.success("Appointment slot retrieved successfully", slot));
+        String etag = EntityTags.of(slot.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Appointment slot retrieved successfully", slot));
+    }
+
+    // ?fields= reads only the picked columns, e.g. ?fields=startTime,technician; the row also carries the version
+    // behind the ETag
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAppointmentSlotFields(@PathVariable long id,
+            @RequestParam String fields, WebRequest request) {
+        Map<String, Object> slot = appointmentSlotService.getAppointmentSlot(id, SparseFields.APPOINTMENT_SLOTS.select(fields));
+        String etag = EntityTags.of(slot.get("version"));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Appointment slot retrieved successfully", slot));
     }
 
     @GetMapping("/available")
     public ResponseEntity<ApiResponse<List<AppointmentSlot>>> getAvailableSlots(
             @RequestParam String start,
             @RequestParam String end) {
-        try {
-            LocalDateTime startTime = LocalDateTime.parse(start);
-            LocalDateTime endTime = LocalDateTime.parse(end);
-            List<AppointmentSlot> slots = appointmentSlotService.getAvailableSlots(startTime, endTime);
-            return ResponseEntity.ok(ApiResponse.success("Available slots retrieved successfully", slots));
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid date format for start or end time");
-        }
+        List<AppointmentSlot> slots = appointmentSlotService.getAvailableSlots(parseTime(start), parseTime(end));
+        return ResponseEntity.ok(ApiResponse.success("Available slots retrieved successfully", slots));
     }
 
     @GetMapping("/available/technician")
@@ -64,21 +104,73 @@ public class AppointmentSlotController {
             @RequestParam String technician,
             @RequestParam String start,
             @RequestParam String end) {
+        String sanitizedTechnician = technician != null ? technician.trim() : null;
+        List<AppointmentSlot> slots = appointmentSlotService.getAvailableSlotsByTechnician(sanitizedTechnician,
+                parseTime(start), parseTime(end));
+        return ResponseEntity.ok(ApiResponse.success("Available slots for technician retrieved successfully", slots));
+    }
+
+    // Availability searches are answered from the in-memory slot index, so the picked fields are copied from the
+    // slots it returns: a column projection could only add queries
+    @GetMapping(value = "/available", params = "fields")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getAvailableSlotFields(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam String fields) {
+        FieldSelection<AppointmentSlot> selection = SparseFields.APPOINTMENT_SLOTS.select(fields);
+        List<Map<String, Object>> slots = appointmentSlotService.getAvailableSlots(parseTime(start), parseTime(end))
+                .stream().map(selection::project).toList();
+        return ResponseEntity.ok(ApiResponse.success("Available slots retrieved successfully", slots));
+    }
+
+    @GetMapping(value = "/available/technician", params = "fields")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getAvailableSlotFieldsByTechnician(
+            @RequestParam String technician,
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam String fields) {
+        FieldSelection<AppointmentSlot> selection = SparseFields.APPOINTMENT_SLOTS.select(fields);
+        String sanitizedTechnician = technician != null ? technician.trim() : null;
+        List<Map<String, Object>> slots = appointmentSlotService.getAvailableSlotsByTechnician(sanitizedTechnician,
+                parseTime(start), parseTime(end)).stream().map(selection::project).toList();
+        return ResponseEntity.ok(ApiResponse.success("Available slots for technician retrieved successfully", slots));
+    }
+
+    // The earliest windows of back-to-back free slots, on any technician, long enough for the service type
+    @GetMapping("/earliest")
+    public ResponseEntity<ApiResponse<List<SlotWindow>>> getEarliestWindows(
+            @RequestParam Long serviceTypeId,
+            @RequestParam String from,
+            @RequestParam(defaultValue = "5") int count,
+            @RequestParam(defaultValue = "31") int days) {
+        if (count < 1 || count > MAX_WINDOWS) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_WINDOWS);
+        }
+        if (days < 1 || days > MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_SEARCH_DAYS);
+        }
+        LocalDateTime fromTime;
         try {
-            LocalDateTime startTime = LocalDateTime.parse(start);
-            LocalDateTime endTime = LocalDateTime.parse(end);
-            String sanitizedTechnician = technician != null ? technician.trim() : null;
-            List<AppointmentSlot> slots = appointmentSlotService.getAvailableSlotsByTechnician(sanitizedTechnician, startTime, endTime);
-            return ResponseEntity.ok(ApiResponse.success("Available slots for technician retrieved successfully", slots));
+            fromTime = LocalDateTime.parse(from);
         } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Invalid date format for start or end time");
+            throw new IllegalArgumentException("Invalid date format for from time");
         }
+        ServiceType serviceType = serviceTypeService.getServiceType(serviceTypeId);
+        if (serviceType.getEstimatedDurationMinutes() <= 0) {
+            throw new IllegalStateException("Service type has no estimated duration");
+        }
+        List<SlotWindow> windows = appointmentSlotService.findEarliestWindows(
+                Duration.ofMinutes(serviceType.getEstimatedDurationMinutes()), fromTime, fromTime.plusDays(days), count);
+        return ResponseEntity.ok(ApiResponse.success("Earliest slot windows retrieved successfully", windows));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<AppointmentSlot>> updateAppointmentSlot(@PathVariable Long id, @Valid @RequestBody AppointmentSlot slot) {
-        AppointmentSlot updatedSlot = appointmentSlotService.updateAppointmentSlot(id, slot);
-        return ResponseEntity.ok(ApiResponse.success("Appointment slot updated successfully", updatedSlot));
+    public ResponseEntity<ApiResponse<AppointmentSlot>> updateAppointmentSlot(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody AppointmentSlot slot) {
+        AppointmentSlot updatedSlot = appointmentSlotService.updateAppointmentSlot(id, slot, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTags.of(updatedSlot.getVersion()))
+                .body(ApiResponse.success("Appointment slot updated successfully", updatedSlot));
     }
 
     @DeleteMapping("/{id}")
@@ -87,4 +179,12 @@ public class AppointmentSlotController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT)
                 .body(ApiResponse.success("Appointment slot deleted successfully", null));
     }
+
+    private static LocalDateTime parseTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format for start or end time");
+        }
+    }
 }
\ No newline at end of file
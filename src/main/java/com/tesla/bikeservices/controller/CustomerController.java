@@ -1,10 +1,17 @@
 package com.tesla.bikeservices.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,13 +20,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.tesla.bikeservices.dto.CustomerImportResult;
+import com.tesla.bikeservices.dto.CustomerSuggestion;
+import com.tesla.bikeservices.dto.ExportFormat;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.SparseFields;
 import com.tesla.bikeservices.response.ApiResponse;
+import com.tesla.bikeservices.response.EntityTags;
+import com.tesla.bikeservices.service.CustomerImportService;
 import com.tesla.bikeservices.service.CustomerService;
+import com.tesla.bikeservices.service.ExportService;
+import com.tesla.bikeservices.service.IdempotencyService;
 
 import jakarta.validation.Valid;
 
@@ -28,38 +48,127 @@ import jakarta.validation.Valid;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final IdempotencyService idempotencyService;
+    private final ExportService exportService;
+    private final CustomerImportService customerImportService;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, IdempotencyService idempotencyService,
+                              ExportService exportService, CustomerImportService customerImportService) {
         this.customerService = customerService;
+        this.idempotencyService = idempotencyService;
+        this.exportService = exportService;
+        this.customerImportService = customerImportService;
     }
 
     @PostMapping
-    public CompletableFuture<ResponseEntity<ApiResponse<Customer>>> createCustomer(@Valid @RequestBody Customer customer) {
-        return customerService.createCustomer(customer).thenApply(savedCustomer ->
+    public CompletableFuture<ResponseEntity<ApiResponse<Customer>>> createCustomer(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody Customer customer) {
+        // createdAt is stamped by the server on insert, so only the client-supplied fields identify the request
+        List<String> request = Arrays.asList(customer.getName(), customer.getEmail(), customer.getPhone(), customer.getBikeModel());
+        return idempotencyService.executeAsync(idempotencyKey, "customers", request, () ->
+        customerService.createCustomer(customer).thenApply(savedCustomer ->
         ResponseEntity.status(HttpStatus.CREATED)
-        .body(ApiResponse.success("Customer created successfully", savedCustomer)));
+        .body(ApiResponse.success("Customer created successfully", savedCustomer))));
+    }
+
+    // Imports a CSV (with header) or NDJSON upload; rejected lines are reported and the rest are still imported
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<CustomerImportResult>> importCustomers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        CustomerImportResult result = customerImportService.importCustomers(ExportFormat.from(format), body);
+        HttpStatus status = result.getRejected() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status)
+                .body(ApiResponse.success(result.getImported() + " customers imported, " + result.getRejected()
+                        + " rejected (" + result.getRowsPerSecond() + " rows/s)", result));
+    }
+
+    // Streams every customer as NDJSON or CSV; partitions > 1 exports ID ranges in parallel
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "1") int partitions) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        exportService.validatePartitions(partitions);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=customers." + exportFormat.getExtension())
+                .body(out -> exportService.exportCustomers(exportFormat, partitions, out));
+    }
+
+    // Service desk autocomplete, answered from memory on every keystroke
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<CustomerSuggestion>>> suggestCustomers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<CustomerSuggestion> suggestions = customerService.suggestCustomers(q, limit);
+        return ResponseEntity.ok(ApiResponse.success("Customer suggestions retrieved successfully", suggestions));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Customer>> getCustomer(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Customer>> getCustomer(@PathVariable Long id, WebRequest request) {
         Customer customer = customerService.getCustomer(id);
-        return ResponseEntity.ok(ApiResponse.success("Customer retrieved successfully", customer));
+        String etag = EntityTags.of(customer.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Customer retrieved successfully", customer));
     }
 
+    // Passing "after" (empty for the first page) switches to keyset pagination: no OFFSET and no count query
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<Customer>>> getAllCustomers(
+    public ResponseEntity<ApiResponse<Slice<Customer>>> getAllCustomers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            Slice<Customer> customers = customerService.getCustomersAfter(PageCursor.decode(after), size);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Customers retrieved successfully", customers, cursorPagination(customers)));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Customer> customers = customerService.getAllCustomers(pageable);
         ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, customers.getTotalElements(), customers.getTotalPages());
         return ResponseEntity.ok(ApiResponse.successPaginated("Customers retrieved successfully", customers, pagination));
     }
 
+    // ?fields= reads only the picked columns, e.g. ?fields=name,email; by-ID rows also carry the version behind the ETag
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCustomerFields(@PathVariable Long id,
+            @RequestParam String fields, WebRequest request) {
+        Map<String, Object> customer = customerService.getCustomer(id, SparseFields.CUSTOMERS.select(fields));
+        String etag = EntityTags.of(customer.get("version"));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Customer retrieved successfully", customer));
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<ApiResponse<Slice<Map<String, Object>>>> getAllCustomerFields(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam String fields) {
+        FieldSelection<Customer> selection = SparseFields.CUSTOMERS.select(fields);
+        if (after != null) {
+            Slice<Map<String, Object>> customers = customerService.getCustomersAfter(selection, PageCursor.decode(after), size);
+            ApiResponse.Pagination pagination = new ApiResponse.Pagination(size, customers.hasNext(),
+                    PageCursor.next(customers, PageCursor::of));
+            return ResponseEntity.ok(ApiResponse.successPaginated("Customers retrieved successfully", customers, pagination));
+        }
+        Page<Map<String, Object>> customers = customerService.getAllCustomers(selection, PageRequest.of(page, size));
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, customers.getTotalElements(), customers.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.successPaginated("Customers retrieved successfully", customers, pagination));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<Customer>> updateCustomer(@PathVariable Long id, @Valid @RequestBody Customer customer) {
-        Customer updatedCustomer = customerService.updateCustomer(id, customer);
-        return ResponseEntity.ok(ApiResponse.success("Customer updated successfully", updatedCustomer));
+    public ResponseEntity<ApiResponse<Customer>> updateCustomer(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody Customer customer) {
+        Customer updatedCustomer = customerService.updateCustomer(id, customer, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTags.of(updatedCustomer.getVersion()))
+                .body(ApiResponse.success("Customer updated successfully", updatedCustomer));
     }
 
     @DeleteMapping("/{id}")
@@ -70,15 +179,22 @@ public class CustomerController {
     }
 
     @GetMapping("/search-by-criteria")
-    public CompletableFuture<ResponseEntity<ApiResponse<Page<Customer>>>> fetchCustomersByCriteria(
+    public CompletableFuture<ResponseEntity<ApiResponse<Slice<Customer>>>> fetchCustomersByCriteria(
             @RequestParam(required = false) String namePrefix,
             @RequestParam(required = false) String emailPrefix,
             @RequestParam(required = false) String phonePrefix,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
         String sanitizedName = namePrefix != null ? namePrefix.trim() : null;
         String sanitizedEmail = emailPrefix != null ? emailPrefix.trim() : null;
         String sanitizedPhone = phonePrefix != null ? phonePrefix.trim() : null;
+        if (after != null) {
+            return customerService.findCustomersByNameOrEmailOrPhoneAfter(sanitizedName, sanitizedEmail, sanitizedPhone,
+                    PageCursor.decode(after), size)
+                    .thenApply(customers -> ResponseEntity.ok(
+                            ApiResponse.successPaginated("Customers retrieved successfully", customers, cursorPagination(customers))));
+        }
         Pageable pageable = PageRequest.of(page, size);
         
        return customerService.findAllCustomersByNameOrEmailOrPhone(sanitizedName, sanitizedEmail, sanitizedPhone, pageable)
@@ -89,4 +205,9 @@ public class CustomerController {
                });
                
    }
+
+    private ApiResponse.Pagination cursorPagination(Slice<Customer> customers) {
+        String nextCursor = PageCursor.next(customers, customer -> new PageCursor(customer.getCreatedAt(), customer.getId()));
+        return new ApiResponse.Pagination(customers.getSize(), customers.hasNext(), nextCursor);
+    }
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.tesla.bikeservices.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,13 +16,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.tesla.bikeservices.dto.BookingBatchResult;
+import com.tesla.bikeservices.dto.BookingSearchHit;
+import com.tesla.bikeservices.dto.BookingSummary;
+import com.tesla.bikeservices.dto.ExportFormat;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.dto.ServiceBookingDTO;
 import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.SparseFields;
 import com.tesla.bikeservices.response.ApiResponse;
+import com.tesla.bikeservices.service.BookingLanes;
+import com.tesla.bikeservices.service.ExportService;
+import com.tesla.bikeservices.service.IdempotencyService;
 import com.tesla.bikeservices.service.ServiceBookingService;
 
 import jakarta.validation.Valid;
@@ -29,76 +45,229 @@ import jakarta.validation.Valid;
 public class ServiceBookingController {
 
     private final ServiceBookingService serviceBookingService;
+    private final IdempotencyService idempotencyService;
+    private final BookingLanes bookingLanes;
+    private final ExportService exportService;
 
 
-    public ServiceBookingController(ServiceBookingService serviceBookingService ) {
+    public ServiceBookingController(ServiceBookingService serviceBookingService, IdempotencyService idempotencyService,
+            BookingLanes bookingLanes, ExportService exportService) {
         this.serviceBookingService = serviceBookingService;
-        
+        this.idempotencyService = idempotencyService;
+        this.bookingLanes = bookingLanes;
+        this.exportService = exportService;
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<ServiceBooking>> createBooking(@Valid @RequestBody ServiceBookingDTO bookingDTO) {
-        ServiceBooking booking = serviceBookingService.createBooking(bookingDTO);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Booking created successfully", booking));
+    public ResponseEntity<ApiResponse<ServiceBooking>> createBooking(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ServiceBookingDTO bookingDTO) {
+        return idempotencyService.execute(idempotencyKey, "bookings", bookingDTO, () -> {
+            ServiceBooking booking = bookingLanes.execute(
+                    () -> serviceBookingService.technicianForSlot(bookingDTO.getAppointmentSlotId()),
+                    () -> serviceBookingService.createBooking(bookingDTO));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Booking created successfully", booking));
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<BookingBatchResult>>> createBookings(@RequestBody List<ServiceBookingDTO> bookingDTOs) {
+        List<BookingBatchResult> results = serviceBookingService.createBookings(bookingDTOs);
+        long created = results.stream().filter(BookingBatchResult::isSuccess).count();
+        HttpStatus status = created == results.size() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status)
+                .body(ApiResponse.success(created + " of " + results.size() + " bookings created", results));
     }
 
+    // Streams every booking as NDJSON or CSV; partitions > 1 exports ID ranges in parallel
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "1") int partitions) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        exportService.validatePartitions(partitions);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=bookings." + exportFormat.getExtension())
+                .body(out -> exportService.exportBookings(exportFormat, partitions, out));
+    }
+
+    // If-None-Match is checked against a versions-only query, so a 304 never loads or serializes the booking
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ServiceBooking>> getBooking(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ServiceBooking>> getBooking(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(serviceBookingService.getBookingTag(id))) {
+            return null;
+        }
         ServiceBooking booking = serviceBookingService.getBooking(id);
-        return ResponseEntity.ok(ApiResponse.success("Booking retrieved successfully", booking));
+        return ResponseEntity.ok().eTag(serviceBookingService.tagOf(booking))
+                .body(ApiResponse.success("Booking retrieved successfully", booking));
     }
 
+    // ?fields= reads only the picked columns and joins, e.g. ?fields=status,technician,appointmentSlot.startTime
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getBookingFields(@PathVariable Long id,
+            @RequestParam String fields, WebRequest request) {
+        FieldSelection<ServiceBooking> selection = SparseFields.SERVICE_BOOKINGS.select(fields);
+        String etag = serviceBookingService.getBookingTag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        Map<String, Object> booking = serviceBookingService.getBooking(id, selection);
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Booking retrieved successfully", booking));
+    }
+
+    // Passing "after" (empty for the first page) switches to keyset pagination: no OFFSET and no count query
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<ServiceBooking>>> getAllBookings(
+    public ResponseEntity<ApiResponse<Slice<BookingSummary>>> getAllBookings(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            Slice<BookingSummary> bookings = serviceBookingService.getBookingsAfter(PageCursor.decode(after), size);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, cursorPagination(bookings)));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<ServiceBooking> bookings = serviceBookingService.getAllBookings(pageable);
+        Page<BookingSummary> bookings = serviceBookingService.getAllBookings(pageable);
         
         ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, bookings.getTotalElements(), bookings.getTotalPages());
         return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings , pagination));
     }
 
+    @GetMapping(params = "fields")
+    public ResponseEntity<ApiResponse<Slice<Map<String, Object>>>> getAllBookingFields(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam String fields) {
+        FieldSelection<ServiceBooking> selection = SparseFields.SERVICE_BOOKINGS.select(fields);
+        if (after != null) {
+            Slice<Map<String, Object>> bookings = serviceBookingService.getBookingsAfter(selection, PageCursor.decode(after), size);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, rowCursorPagination(bookings)));
+        }
+        Page<Map<String, Object>> bookings = serviceBookingService.getAllBookings(selection, PageRequest.of(page, size));
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, bookings.getTotalElements(), bookings.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, pagination));
+    }
+
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<ApiResponse<List<ServiceBooking>>> getBookingsByCustomer(@PathVariable Long customerId) {
-        List<ServiceBooking> bookings = serviceBookingService.getBookingsByCustomer(customerId);
+    public ResponseEntity<ApiResponse<List<BookingSummary>>> getBookingsByCustomer(@PathVariable Long customerId) {
+        List<BookingSummary> bookings = serviceBookingService.getBookingsByCustomer(customerId);
+        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    }
+
+    @GetMapping(value = "/customer/{customerId}", params = "fields")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getBookingFieldsByCustomer(@PathVariable Long customerId,
+            @RequestParam String fields) {
+        List<Map<String, Object>> bookings = serviceBookingService.getBookingsByCustomer(customerId,
+                SparseFields.SERVICE_BOOKINGS.select(fields));
         return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<ApiResponse<List<ServiceBooking>>> getBookingsByStatus(@PathVariable String status) {
-        List<ServiceBooking> bookings = serviceBookingService.getBookingsByStatus(status);
+    public ResponseEntity<ApiResponse<List<BookingSummary>>> getBookingsByStatus(@PathVariable String status) {
+        List<BookingSummary> bookings = serviceBookingService.getBookingsByStatus(status);
+        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    }
+
+    @GetMapping(value = "/status/{status}", params = "fields")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getBookingFieldsByStatus(@PathVariable String status,
+            @RequestParam String fields) {
+        List<Map<String, Object>> bookings = serviceBookingService.getBookingsByStatus(status,
+                SparseFields.SERVICE_BOOKINGS.select(fields));
         return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<ServiceBooking>> updateBooking(@PathVariable Long id, @Valid @RequestBody ServiceBookingDTO bookingDTO) {
-        ServiceBooking updatedBooking = serviceBookingService.updateBooking(id, bookingDTO);
-        return ResponseEntity.ok(ApiResponse.success("Booking updated successfully", updatedBooking));
+    public ResponseEntity<ApiResponse<ServiceBooking>> updateBooking(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ServiceBookingDTO bookingDTO) {
+        // A move to another technician's slot releases the old one too, so both technicians' lanes are held
+        ServiceBooking updatedBooking = bookingLanes.execute(
+                () -> serviceBookingService.technicianForBooking(id),
+                () -> serviceBookingService.technicianForSlot(bookingDTO.getAppointmentSlotId()),
+                () -> serviceBookingService.updateBooking(id, bookingDTO, ifMatch));
+        return ResponseEntity.ok().eTag(serviceBookingService.tagOf(updatedBooking))
+                .body(ApiResponse.success("Booking updated successfully", updatedBooking));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteBooking(@PathVariable Long id) {
-        serviceBookingService.deleteBooking(id);
+        bookingLanes.run(() -> serviceBookingService.technicianForBooking(id), () -> serviceBookingService.deleteBooking(id));
         return ResponseEntity.status(HttpStatus.NO_CONTENT)
                 .body(ApiResponse.success("Booking deleted successfully", null));
     }
 
+    // Ranked full-text search over notes, service type and spare part names, e.g. ?q=brake squeal
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<Page<BookingSearchHit>>> searchBookings(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Page<BookingSearchHit> hits = serviceBookingService.searchBookingsByText(q, PageRequest.of(page, size));
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, hits.getTotalElements(), hits.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", hits, pagination));
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<ApiResponse<Long>> rebuildSearchIndex() {
+        long indexed = serviceBookingService.rebuildSearchIndex();
+        return ResponseEntity.ok(ApiResponse.success("Search index rebuilt with " + indexed + " bookings", indexed));
+    }
+
     @GetMapping("/search-by-criteria")
-    public ResponseEntity<ApiResponse<Page<ServiceBooking>>> searchBookingsByCriteria(
+    public ResponseEntity<ApiResponse<Slice<BookingSummary>>> searchBookingsByCriteria(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String technicianPrefix,
             @RequestParam(required = false) String customerPrefix,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
         String sanitizedStatus = status != null ? status.trim() : null;
         String sanitizedTechnician = technicianPrefix != null ? technicianPrefix.trim() : null;
         String sanitizedCustomer = customerPrefix != null ? customerPrefix.trim() : null;
+        if (after != null) {
+            Slice<BookingSummary> bookings = serviceBookingService.searchBookingsByCriteriaAfter(
+                    sanitizedStatus, sanitizedTechnician, sanitizedCustomer, PageCursor.decode(after), size);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, cursorPagination(bookings)));
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<ServiceBooking> bookings = serviceBookingService.searchBookingsByCriteria(
+        Page<BookingSummary> bookings = serviceBookingService.searchBookingsByCriteria(
                 sanitizedStatus, sanitizedTechnician, sanitizedCustomer, pageable);
         ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, bookings.getTotalElements(), bookings.getTotalPages());
         return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, pagination));
     }
+
+    @GetMapping(value = "/search-by-criteria", params = "fields")
+    public ResponseEntity<ApiResponse<Slice<Map<String, Object>>>> searchBookingFieldsByCriteria(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String technicianPrefix,
+            @RequestParam(required = false) String customerPrefix,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam String fields) {
+        FieldSelection<ServiceBooking> selection = SparseFields.SERVICE_BOOKINGS.select(fields);
+        String sanitizedStatus = status != null ? status.trim() : null;
+        String sanitizedTechnician = technicianPrefix != null ? technicianPrefix.trim() : null;
+        String sanitizedCustomer = customerPrefix != null ? customerPrefix.trim() : null;
+        if (after != null) {
+            Slice<Map<String, Object>> bookings = serviceBookingService.searchBookingsByCriteriaAfter(
+                    sanitizedStatus, sanitizedTechnician, sanitizedCustomer, selection, PageCursor.decode(after), size);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, rowCursorPagination(bookings)));
+        }
+        Page<Map<String, Object>> bookings = serviceBookingService.searchBookingsByCriteria(
+                sanitizedStatus, sanitizedTechnician, sanitizedCustomer, selection, PageRequest.of(page, size));
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, bookings.getTotalElements(), bookings.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.successPaginated("Bookings retrieved successfully", bookings, pagination));
+    }
+
+    private ApiResponse.Pagination rowCursorPagination(Slice<Map<String, Object>> bookings) {
+        return new ApiResponse.Pagination(bookings.getSize(), bookings.hasNext(), PageCursor.next(bookings, PageCursor::of));
+    }
+
+    private ApiResponse.Pagination cursorPagination(Slice<BookingSummary> bookings) {
+        String nextCursor = PageCursor.next(bookings, booking -> new PageCursor(booking.createdAt(), booking.id()));
+        return new ApiResponse.Pagination(bookings.getSize(), bookings.hasNext(), nextCursor);
+    }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.tesla.bikeservices.controller;
 
+import java.util.Map;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,12 +15,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.SparseFields;
 import com.tesla.bikeservices.response.ApiResponse;
+import com.tesla.bikeservices.response.EntityTags;
 import com.tesla.bikeservices.service.ServiceTypeService;
 
 import jakarta.validation.Valid;
@@ -39,25 +49,75 @@ public class ServiceTypeController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ServiceType>> getServiceType(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ServiceType>> getServiceType(@PathVariable Long id, WebRequest request) {
         ServiceType serviceType = serviceTypeService.getServiceType(id);
-        return ResponseEntity.ok(ApiResponse.success("Service type retrieved successfully", serviceType));
+        String etag = EntityTags.of(serviceType.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Service type retrieved successfully", serviceType));
     }
 
+    // ?fields= picks fields, e.g. ?fields=id,name. Service type reads by ID and by page are served from the service's
+    // caches, so the picked fields are copied from the entities it returns: a column projection could only add queries
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getServiceTypeFields(@PathVariable Long id,
+            @RequestParam String fields, WebRequest request) {
+        FieldSelection<ServiceType> selection = SparseFields.SERVICE_TYPES.select(fields);
+        ServiceType serviceType = serviceTypeService.getServiceType(id);
+        String etag = EntityTags.of(serviceType.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(ApiResponse.success("Service type retrieved successfully", selection.project(serviceType)));
+    }
+
+    // Passing "after" (empty for the first page) switches to keyset pagination: no OFFSET and no count query
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<ServiceType>>> getAllServiceTypes(
+    public ResponseEntity<ApiResponse<Slice<ServiceType>>> getAllServiceTypes(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            Slice<ServiceType> serviceTypes = serviceTypeService.getServiceTypesAfter(PageCursor.decode(after), size);
+            String nextCursor = PageCursor.next(serviceTypes, item -> new PageCursor(null, item.getId()));
+            ApiResponse.Pagination pagination = new ApiResponse.Pagination(size, serviceTypes.hasNext(), nextCursor);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Service types retrieved successfully", serviceTypes, pagination));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<ServiceType> serviceTypes = serviceTypeService.getAllServiceTypes(pageable);
         ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, serviceTypes.getTotalElements(), serviceTypes.getTotalPages());
         return ResponseEntity.ok(ApiResponse.successPaginated("Service types retrieved successfully", serviceTypes, pagination));
     }
 
+    @GetMapping(params = "fields")
+    public ResponseEntity<ApiResponse<Slice<Map<String, Object>>>> getAllServiceTypeFields(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam String fields) {
+        FieldSelection<ServiceType> selection = SparseFields.SERVICE_TYPES.select(fields);
+        if (after != null) {
+            Slice<Map<String, Object>> serviceTypes = serviceTypeService.getServiceTypesAfter(PageCursor.decode(after), size)
+                    .map(selection::project);
+            String nextCursor = PageCursor.next(serviceTypes, PageCursor::of);
+            ApiResponse.Pagination pagination = new ApiResponse.Pagination(size, serviceTypes.hasNext(), nextCursor);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Service types retrieved successfully", serviceTypes, pagination));
+        }
+        Page<Map<String, Object>> serviceTypes = serviceTypeService.getAllServiceTypes(PageRequest.of(page, size))
+                .map(selection::project);
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, serviceTypes.getTotalElements(), serviceTypes.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.successPaginated("Service types retrieved successfully", serviceTypes, pagination));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<ServiceType>> updateServiceType(@PathVariable Long id, @Valid @RequestBody ServiceType serviceType) {
-        ServiceType updatedServiceType = serviceTypeService.updateServiceType(id, serviceType);
-        return ResponseEntity.ok(ApiResponse.success("Service type updated successfully", updatedServiceType));
+    public ResponseEntity<ApiResponse<ServiceType>> updateServiceType(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody ServiceType serviceType) {
+        ServiceType updatedServiceType = serviceTypeService.updateServiceType(id, serviceType, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTags.of(updatedServiceType.getVersion()))
+                .body(ApiResponse.success("Service type updated successfully", updatedServiceType));
     }
 
     @DeleteMapping("/{id}")
@@ -1,8 +1,12 @@
 package com.tesla.bikeservices.controller;
 
+import java.util.Map;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,12 +15,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.SparseFields;
 import com.tesla.bikeservices.response.ApiResponse;
+import com.tesla.bikeservices.response.EntityTags;
 import com.tesla.bikeservices.service.SparePartService;
 
 import jakarta.validation.Valid;
@@ -39,25 +49,98 @@ public class SparePartController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<SparePart>> getSparePart(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<SparePart>> getSparePart(@PathVariable Long id, WebRequest request) {
         SparePart sparePart = sparePartService.getSparePart(id);
-        return ResponseEntity.ok(ApiResponse.success("Spare part retrieved successfully", sparePart));
+        String etag = EntityTags.of(sparePart.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Spare part retrieved successfully", sparePart));
+    }
+
+    @GetMapping("/by-number/{partNumber}")
+    public ResponseEntity<ApiResponse<SparePart>> getSparePartByNumber(@PathVariable String partNumber, WebRequest request) {
+        SparePart sparePart = sparePartService.getSparePartByNumber(partNumber);
+        String etag = EntityTags.of(sparePart.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success("Spare part retrieved successfully", sparePart));
     }
 
+    // ?fields= picks fields, e.g. ?fields=id,name. Spare part reads by ID and by page are served from the service's
+    // caches, so the picked fields are copied from the entities it returns: a column projection could only add queries
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSparePartFields(@PathVariable Long id,
+            @RequestParam String fields, WebRequest request) {
+        FieldSelection<SparePart> selection = SparseFields.SPARE_PARTS.select(fields);
+        SparePart sparePart = sparePartService.getSparePart(id);
+        String etag = EntityTags.of(sparePart.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(ApiResponse.success("Spare part retrieved successfully", selection.project(sparePart)));
+    }
+
+    @GetMapping(value = "/by-number/{partNumber}", params = "fields")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSparePartFieldsByNumber(@PathVariable String partNumber,
+            @RequestParam String fields, WebRequest request) {
+        FieldSelection<SparePart> selection = SparseFields.SPARE_PARTS.select(fields);
+        SparePart sparePart = sparePartService.getSparePartByNumber(partNumber);
+        String etag = EntityTags.of(sparePart.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag)
+                .body(ApiResponse.success("Spare part retrieved successfully", selection.project(sparePart)));
+    }
+
+    // Passing "after" (empty for the first page) switches to keyset pagination: no OFFSET and no count query
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<SparePart>>> getAllSpareParts(
+    public ResponseEntity<ApiResponse<Slice<SparePart>>> getAllSpareParts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            Slice<SparePart> spareParts = sparePartService.getSparePartsAfter(PageCursor.decode(after), size);
+            String nextCursor = PageCursor.next(spareParts, item -> new PageCursor(null, item.getId()));
+            ApiResponse.Pagination pagination = new ApiResponse.Pagination(size, spareParts.hasNext(), nextCursor);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Spare parts retrieved successfully", spareParts, pagination));
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<SparePart> spareParts = sparePartService.getAllSpareParts(pageable);
         ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, spareParts.getTotalElements(), spareParts.getTotalPages());
         return ResponseEntity.ok(ApiResponse.successPaginated("Spare parts retrieved successfully", spareParts, pagination));
     }
 
+    @GetMapping(params = "fields")
+    public ResponseEntity<ApiResponse<Slice<Map<String, Object>>>> getAllSparePartFields(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam String fields) {
+        FieldSelection<SparePart> selection = SparseFields.SPARE_PARTS.select(fields);
+        if (after != null) {
+            Slice<Map<String, Object>> spareParts = sparePartService.getSparePartsAfter(PageCursor.decode(after), size)
+                    .map(selection::project);
+            String nextCursor = PageCursor.next(spareParts, PageCursor::of);
+            ApiResponse.Pagination pagination = new ApiResponse.Pagination(size, spareParts.hasNext(), nextCursor);
+            return ResponseEntity.ok(ApiResponse.successPaginated("Spare parts retrieved successfully", spareParts, pagination));
+        }
+        Page<Map<String, Object>> spareParts = sparePartService.getAllSpareParts(PageRequest.of(page, size))
+                .map(selection::project);
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(page, size, spareParts.getTotalElements(), spareParts.getTotalPages());
+        return ResponseEntity.ok(ApiResponse.successPaginated("Spare parts retrieved successfully", spareParts, pagination));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<SparePart>> updateSparePart(@PathVariable Long id, @Valid @RequestBody SparePart sparePart) {
-        SparePart updatedSparePart = sparePartService.updateSparePart(id, sparePart);
-        return ResponseEntity.ok(ApiResponse.success("Spare part updated successfully", updatedSparePart));
+    public ResponseEntity<ApiResponse<SparePart>> updateSparePart(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody SparePart sparePart) {
+        SparePart updatedSparePart = sparePartService.updateSparePart(id, sparePart, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTags.of(updatedSparePart.getVersion()))
+                .body(ApiResponse.success("Spare part updated successfully", updatedSparePart));
     }
 
     @PutMapping("/{id}/stock")
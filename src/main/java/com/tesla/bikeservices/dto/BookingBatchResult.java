@@ -0,0 +1,26 @@
+package com.tesla.bikeservices.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookingBatchResult {
+
+    private int index;
+    private String status;
+    private Long bookingId;
+    private String message;
+
+    public static BookingBatchResult success(int index, Long bookingId) {
+        return new BookingBatchResult(index, "success", bookingId, "Booking created successfully");
+    }
+
+    public static BookingBatchResult error(int index, String message) {
+        return new BookingBatchResult(index, "error", null, message);
+    }
+
+    public boolean isSuccess() {
+        return "success".equals(status);
+    }
+}
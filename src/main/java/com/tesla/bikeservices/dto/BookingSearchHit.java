@@ -0,0 +1,5 @@
+package com.tesla.bikeservices.dto;
+
+// One full-text match; higher scores rank first
+public record BookingSearchHit(float score, BookingSummary booking) {
+}
@@ -0,0 +1,68 @@
+package com.tesla.bikeservices.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.entity.SparePart;
+
+/**
+ * Read-only view of a booking for the list endpoints. It keeps the JSON shape of {@link ServiceBooking} for the
+ * fields it carries, but is filled by a single joined query instead of loading each booking's associations.
+ */
+public record BookingSummary(
+        Long id,
+        String status,
+        String priority,
+        String technician,
+        String notes,
+        LocalDateTime actualStartTime,
+        LocalDateTime actualEndTime,
+        LocalDateTime createdAt,
+        Long version,
+        CustomerSummary customer,
+        ServiceTypeSummary serviceType,
+        SlotSummary appointmentSlot,
+        List<Long> sparePartIds) {
+
+    // Flat form used by the JPQL constructor expressions in ServiceBookingRepository; spare parts are added later
+    public BookingSummary(Long id, String status, String priority, String technician, String notes,
+                          LocalDateTime actualStartTime, LocalDateTime actualEndTime, LocalDateTime createdAt, Long version,
+                          Long customerId, String customerName, String customerEmail,
+                          Long serviceTypeId, String serviceTypeName,
+                          Long slotId, String slotTechnician, LocalDateTime slotStartTime, LocalDateTime slotEndTime) {
+        this(id, status, priority, technician, notes, actualStartTime, actualEndTime, createdAt, version,
+                customerId != null ? new CustomerSummary(customerId, customerName, customerEmail) : null,
+                serviceTypeId != null ? new ServiceTypeSummary(serviceTypeId, serviceTypeName) : null,
+                slotId != null ? new SlotSummary(slotId, slotTechnician, slotStartTime, slotEndTime) : null,
+                List.of());
+    }
+
+    public static BookingSummary from(ServiceBooking booking) {
+        return new BookingSummary(booking.getId(), booking.getStatus(), booking.getPriority(), booking.getTechnician(),
+                booking.getNotes(), booking.getActualStartTime(), booking.getActualEndTime(), booking.getCreatedAt(),
+                booking.getVersion(),
+                booking.getCustomer() != null ? new CustomerSummary(booking.getCustomer().getId(),
+                        booking.getCustomer().getName(), booking.getCustomer().getEmail()) : null,
+                booking.getServiceType() != null ? new ServiceTypeSummary(booking.getServiceType().getId(),
+                        booking.getServiceType().getName()) : null,
+                booking.getAppointmentSlot() != null ? new SlotSummary(booking.getAppointmentSlot().getId(),
+                        booking.getAppointmentSlot().getTechnician(), booking.getAppointmentSlot().getStartTime(),
+                        booking.getAppointmentSlot().getEndTime()) : null,
+                booking.getSpareParts().stream().map(SparePart::getId).toList());
+    }
+
+    public BookingSummary withSparePartIds(List<Long> sparePartIds) {
+        return new BookingSummary(id, status, priority, technician, notes, actualStartTime, actualEndTime, createdAt,
+                version, customer, serviceType, appointmentSlot, sparePartIds);
+    }
+
+    public record CustomerSummary(Long id, String name, String email) {
+    }
+
+    public record ServiceTypeSummary(Long id, String name) {
+    }
+
+    public record SlotSummary(Long id, String technician, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+}
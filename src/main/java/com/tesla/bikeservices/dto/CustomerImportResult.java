@@ -0,0 +1,26 @@
+package com.tesla.bikeservices.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CustomerImportResult {
+
+    private int imported;
+    private int rejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    // At most the first few hundred rejected lines; errorsTruncated tells whether more were dropped
+    private List<LineError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
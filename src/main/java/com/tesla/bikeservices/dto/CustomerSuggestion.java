@@ -0,0 +1,11 @@
+package com.tesla.bikeservices.dto;
+
+import com.tesla.bikeservices.entity.Customer;
+
+// What the service desk needs to pick a customer from the autocomplete list
+public record CustomerSuggestion(Long id, String name, String email, String phone) {
+
+    public static CustomerSuggestion from(Customer customer) {
+        return new CustomerSuggestion(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone());
+    }
+}
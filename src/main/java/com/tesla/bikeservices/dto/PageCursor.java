@@ -0,0 +1,75 @@
+package com.tesla.bikeservices.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Keyset position for cursor pagination: the (createdAt, id) of the last row a client has seen, handed out as an
+ * opaque token. The next page seeks past it on the (createdAt, id) index instead of skipping OFFSET rows, and no
+ * count query is run. Tables without a creation timestamp seek on the ID alone and ignore createdAt.
+ */
+public record PageCursor(LocalDateTime createdAt, Long id) {
+
+    // Sorts before every stored row, so the first cursor page seeks from here
+    public static final PageCursor FIRST = new PageCursor(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+
+    private static final int MAX_SIZE = 1000;
+
+    // A blank token starts from the first row
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime createdAt = parts[0].isEmpty() ? FIRST.createdAt() : LocalDateTime.parse(parts[0]);
+            return new PageCursor(createdAt, Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String key = (createdAt != null ? createdAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // One row more than requested is read, which tells whether another page follows without counting
+    public static Limit limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+
+    public static <T> Slice<T> slice(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+
+    // Position of a sparse fieldset row, which always carries its id, and createdAt when the table has one
+    public static PageCursor of(Map<String, Object> row) {
+        return new PageCursor((LocalDateTime) row.get("createdAt"), (Long) row.get("id"));
+    }
+
+    // Token for the page after this slice, or null on the last page
+    public static <T> String next(Slice<T> slice, Function<T, PageCursor> position) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return null;
+        }
+        return position.apply(slice.getContent().get(slice.getNumberOfElements() - 1)).encode();
+    }
+}
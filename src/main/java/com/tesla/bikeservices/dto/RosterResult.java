@@ -0,0 +1,16 @@
+package com.tesla.bikeservices.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RosterResult {
+
+    private int created;
+    // Slots that clashed with existing slots of the same technician and were left out
+    private int skipped;
+    private Map<String, Integer> createdByTechnician;
+}
@@ -0,0 +1,38 @@
+package com.tesla.bikeservices.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+// Weekly working pattern expanded into appointment slots, e.g. Mon-Fri 09:00-17:00 in 30-minute slots
+@Data
+public class RosterTemplateDTO {
+
+    @NotEmpty(message = "At least one technician is mandatory")
+    private List<String> technicians;
+
+    @NotEmpty(message = "At least one working day is mandatory")
+    private Set<DayOfWeek> daysOfWeek;
+
+    @NotNull(message = "Day start time is mandatory")
+    private LocalTime dayStart;
+
+    @NotNull(message = "Day end time is mandatory")
+    private LocalTime dayEnd;
+
+    @Min(value = 5, message = "Slots must be at least 5 minutes long")
+    private int slotMinutes;
+
+    @NotNull(message = "Start date is mandatory")
+    private LocalDate fromDate;
+
+    @NotNull(message = "End date is mandatory")
+    private LocalDate toDate;
+}
@@ -0,0 +1,18 @@
+package com.tesla.bikeservices.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Back-to-back free slots of one technician that together fit a service
+@Data
+@AllArgsConstructor
+public class SlotWindow {
+
+    private String technician;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<Long> slotIds;
+}
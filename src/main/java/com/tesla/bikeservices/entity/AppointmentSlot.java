@@ -2,21 +2,30 @@ package com.tesla.bikeservices.entity;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 @Entity
 @Data
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@Table(indexes = @Index(name = "idx_appointment_slot_technician_start", columnList = "technician, startTime"))
 public class AppointmentSlot {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_slot_seq")
+	@SequenceGenerator(name = "appointment_slot_seq", sequenceName = "appointment_slot_seq", allocationSize = 50)
 	private Long id;
 
 	@NotNull(message = "Start time is mandatory")
@@ -30,6 +39,7 @@ public class AppointmentSlot {
 
 	private boolean isAvailable = true;
 
-	@OneToOne(mappedBy = "appointmentSlot")
-	private ServiceBooking serviceBooking;
+	@Version
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
 }
@@ -1,11 +1,27 @@
 package com.tesla.bikeservices.entity;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -14,10 +30,19 @@ import lombok.Data;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@Table(indexes = {
+		@Index(name = "idx_customer_created_id", columnList = "createdAt, id"),
+		@Index(name = "idx_customer_name_search", columnList = "nameSearch"),
+		@Index(name = "idx_customer_email_search", columnList = "emailSearch"),
+		@Index(name = "idx_customer_phone_search", columnList = "phoneSearch") })
 public class Customer {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+	@SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
 	private Long id;
 
 	@NotBlank(message = "Name is mandatory")
@@ -35,5 +60,46 @@ public class Customer {
 	@NotBlank(message = "Bike model is mandatory")
 	private String bikeModel;
 
-	private LocalDateTime createdAt = LocalDateTime.now();
+	// Server-owned: keyset pages order by it, so clients can neither send it nor leave it null
+	@Column(nullable = false, updatable = false)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private LocalDateTime createdAt;
+
+	// Search keys kept in step with the fields above, so prefix searches are plain index range scans
+	@JsonIgnore
+	private String nameSearch;
+
+	@JsonIgnore
+	private String emailSearch;
+
+	@JsonIgnore
+	private String phoneSearch;
+
+	@Version
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
+
+	@PrePersist
+	void onPersist() {
+		if (createdAt == null) {
+			createdAt = LocalDateTime.now();
+		}
+		updateSearchKeys();
+	}
+
+	@PreUpdate
+	void updateSearchKeys() {
+		nameSearch = searchKey(name);
+		emailSearch = searchKey(email);
+		phoneSearch = phoneSearchKey(phone);
+	}
+
+	public static String searchKey(String value) {
+		return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+	}
+
+	// Digits only, so "+1 (555) 010" and "1555010" find the same customers
+	public static String phoneSearchKey(String value) {
+		return value != null ? value.replaceAll("\\D", "") : null;
+	}
 }
@@ -0,0 +1,40 @@
+package com.tesla.bikeservices.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Data;
+
+// Response recorded for an Idempotency-Key, so a retried POST can be answered without re-running it
+@Entity
+@Data
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+public class IdempotencyRecord {
+
+	// Scope-qualified key, e.g. "bookings:3f2a..."
+	@Id
+	@Column(length = 300)
+	private String idempotencyKey;
+
+	@Column(nullable = false, length = 64)
+	private String requestFingerprint;
+
+	private int statusCode;
+
+	@Lob
+	private String responseBody;
+
+	private LocalDateTime createdAt = LocalDateTime.now();
+
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+
+	@Version
+	private Long version;
+}
@@ -6,33 +6,45 @@ import java.util.List;
 
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_service_booking_created_id", columnList = "createdAt, id"),
+        @Index(name = "idx_service_booking_status_created", columnList = "status, createdAt, id"),
+        @Index(name = "idx_service_booking_technician_created", columnList = "technician, createdAt, id") })
 public class ServiceBooking {
 
+    // Named so a violation can be told apart from other integrity errors, e.g. a second booking of one slot
+    public static final String CUSTOMER_FOREIGN_KEY = "fk_service_booking_customer";
+    public static final String SERVICE_TYPE_FOREIGN_KEY = "fk_service_booking_service_type";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_booking_seq")
+    @SequenceGenerator(name = "service_booking_seq", sequenceName = "service_booking_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
-    @JoinColumn(name = "customer_id")
+    @JoinColumn(name = "customer_id", foreignKey = @ForeignKey(name = CUSTOMER_FOREIGN_KEY))
     private Customer customer;
 
     @ManyToOne
-    @JoinColumn(name = "service_type_id")
+    @JoinColumn(name = "service_type_id", foreignKey = @ForeignKey(name = SERVICE_TYPE_FOREIGN_KEY))
     private ServiceType serviceType;
 
     @OneToOne
@@ -1,9 +1,18 @@
 package com.tesla.bikeservices.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -12,10 +21,14 @@ import lombok.Data;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "serviceTypes")
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class ServiceType {
 
 	
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_type_seq")
+	@SequenceGenerator(name = "service_type_seq", sequenceName = "service_type_seq", allocationSize = 50)
 
 	@Id
 	private Long id;
@@ -33,4 +46,7 @@ public class ServiceType {
 	@Size(max = 500, message = "Description cannot exceed 500 characters")
 	private String description;
 
+	@Version
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
 }
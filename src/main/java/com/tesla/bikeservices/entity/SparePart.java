@@ -1,9 +1,19 @@
 package com.tesla.bikeservices.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -11,9 +21,13 @@ import lombok.Data;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "spareParts")
+@Table(indexes = @Index(name = "idx_spare_part_part_number", columnList = "partNumber"))
 public class SparePart {
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spare_part_seq")
+	@SequenceGenerator(name = "spare_part_seq", sequenceName = "spare_part_seq", allocationSize = 50)
 	private Long id;
 	@NotBlank(message = "Part name is mandatory")
 	private String partName;
@@ -27,4 +41,7 @@ public class SparePart {
 	@Positive(message = "Price must be positive")
 	private double price;
 
+	@Version
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
 }
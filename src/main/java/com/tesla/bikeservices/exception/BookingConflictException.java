@@ -0,0 +1,16 @@
+package com.tesla.bikeservices.exception;
+
+// A booking write kept losing to concurrent writes; carries the version the client should re-read
+public class BookingConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public BookingConflictException(String message, Long currentVersion, Throwable cause) {
+        super(message, cause);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
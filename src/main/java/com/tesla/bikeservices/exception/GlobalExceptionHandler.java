@@ -6,6 +6,8 @@ import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -40,6 +42,38 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBookingConflictException(BookingConflictException ex) {
+        logger.warn("Booking conflict: {}", ex.getMessage());
+        Map<String, String> errors = new HashMap<>();
+        errors.put("currentVersion", String.valueOf(ex.getCurrentVersion()));
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), errors);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiResponse<Object>> handlePreconditionFailedException(PreconditionFailedException ex) {
+        logger.warn("Precondition failed: {}", ex.getMessage());
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), null);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(ex.getCurrentTag()).body(response);
+    }
+
+    @ExceptionHandler(LaneSaturatedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleLaneSaturatedException(LaneSaturatedException ex) {
+        logger.warn("Booking lane saturated: {}", ex.getMessage());
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage(), null);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Object>> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        logger.warn("Optimistic lock conflict: {}", ex.getMessage());
+        ApiResponse<Object> response = ApiResponse.error("The resource was modified concurrently, reload it and retry", null);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<ApiResponse<Object>> handleIllegalStateException(IllegalStateException ex) {
         logger.error("Illegal state: {}", ex.getMessage());
@@ -0,0 +1,18 @@
+package com.tesla.bikeservices.exception;
+
+import java.time.Duration;
+
+// A booking lane's queue is full; the write was not attempted and the client may retry after retryAfter
+public class LaneSaturatedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LaneSaturatedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
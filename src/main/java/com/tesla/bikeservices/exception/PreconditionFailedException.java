@@ -0,0 +1,16 @@
+package com.tesla.bikeservices.exception;
+
+// An If-Match header named a version the resource no longer has; carries the tag the client should re-read
+public class PreconditionFailedException extends RuntimeException {
+
+    private final String currentTag;
+
+    public PreconditionFailedException(String message, String currentTag) {
+        super(message);
+        this.currentTag = currentTag;
+    }
+
+    public String getCurrentTag() {
+        return currentTag;
+    }
+}
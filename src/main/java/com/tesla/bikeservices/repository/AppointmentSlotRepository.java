@@ -1,14 +1,62 @@
 package com.tesla.bikeservices.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.tesla.bikeservices.entity.AppointmentSlot;
+
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long> {
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long>, SparseFieldRepository<AppointmentSlot> {
     List<AppointmentSlot> findByStartTimeBetweenAndIsAvailableTrue(LocalDateTime start, LocalDateTime end);
     List<AppointmentSlot> findByTechnicianAndStartTimeBetween(String technician, LocalDateTime start, LocalDateTime end);
+    List<AppointmentSlot> findByTechnicianAndStartTimeBetweenAndIsAvailableTrue(String technician, LocalDateTime start, LocalDateTime end);
+    long countByIsAvailableTrue();
+
+    // Every slot, booked or not, starting within [from, to); loads one day of the slot day cache
+    @Query("SELECT s FROM AppointmentSlot s WHERE s.startTime >= :from AND s.startTime < :to")
+    List<AppointmentSlot> findStartingWithin(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT s.technician FROM AppointmentSlot s WHERE s.id = :id")
+    Optional<String> findTechnicianById(@Param("id") Long id);
+
+    // Read after claimSlot or releaseSlot, whose bulk updates bypass the persistence context
+    @Query("SELECT s.version FROM AppointmentSlot s WHERE s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // True overlap test: the other slot starts before this one ends and ends after it starts
+    @Query("SELECT COUNT(s) > 0 FROM AppointmentSlot s WHERE s.technician = :technician"
+            + " AND s.startTime < :end AND s.endTime > :start AND (:excludeId IS NULL OR s.id <> :excludeId)")
+    boolean existsOverlapping(@Param("technician") String technician, @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end, @Param("excludeId") Long excludeId);
+
+    @Query("SELECT s FROM AppointmentSlot s WHERE s.technician = :technician AND s.startTime < :end AND s.endTime > :start")
+    List<AppointmentSlot> findOverlapping(@Param("technician") String technician, @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // Flips the slot to booked only if it is still available; returns 1 for the winning claim, 0 otherwise
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AppointmentSlot s SET s.isAvailable = false, s.version = s.version + 1 WHERE s.id = :id AND s.isAvailable = true")
+    int claimSlot(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AppointmentSlot s SET s.isAvailable = true, s.version = s.version + 1 WHERE s.id = :id")
+    int releaseSlot(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AppointmentSlot s WHERE s.id IN :ids ORDER BY s.id")
+    List<AppointmentSlot> lockAllByIdInOrder(@Param("ids") Collection<Long> ids);
 }
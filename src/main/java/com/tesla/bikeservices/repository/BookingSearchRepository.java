@@ -0,0 +1,21 @@
+package com.tesla.bikeservices.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.tesla.bikeservices.dto.BookingSummary;
+import com.tesla.bikeservices.entity.ServiceBooking;
+
+// Dynamic booking searches returning the same joined BookingSummary rows as the @Query list methods
+public interface BookingSearchRepository {
+
+    Page<BookingSummary> searchSummaries(Specification<ServiceBooking> filter, Pageable pageable);
+
+    // Keyset form: no count query
+    List<BookingSummary> searchSummaries(Specification<ServiceBooking> filter, Sort sort, Limit limit);
+}
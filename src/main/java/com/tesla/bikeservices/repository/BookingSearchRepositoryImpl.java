@@ -0,0 +1,87 @@
+package com.tesla.bikeservices.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.tesla.bikeservices.dto.BookingSummary;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.entity.ServiceType;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+class BookingSearchRepositoryImpl implements BookingSearchRepository {
+
+    private final EntityManager entityManager;
+
+    BookingSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<BookingSummary> searchSummaries(Specification<ServiceBooking> filter, Pageable pageable) {
+        TypedQuery<BookingSummary> query = summaryQuery(filter, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(filter));
+    }
+
+    @Override
+    public List<BookingSummary> searchSummaries(Specification<ServiceBooking> filter, Sort sort, Limit limit) {
+        TypedQuery<BookingSummary> query = summaryQuery(filter, sort);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+
+    // Same shape as ServiceBookingRepository.SUMMARY_SELECT
+    private TypedQuery<BookingSummary> summaryQuery(Specification<ServiceBooking> filter, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingSummary> query = cb.createQuery(BookingSummary.class);
+        Root<ServiceBooking> b = query.from(ServiceBooking.class);
+        Join<ServiceBooking, Customer> c = b.join("customer", JoinType.LEFT);
+        Join<ServiceBooking, ServiceType> t = b.join("serviceType", JoinType.LEFT);
+        Join<ServiceBooking, AppointmentSlot> s = b.join("appointmentSlot", JoinType.LEFT);
+        query.select(cb.construct(BookingSummary.class,
+                b.get("id"), b.get("status"), b.get("priority"), b.get("technician"), b.get("notes"),
+                b.get("actualStartTime"), b.get("actualEndTime"), b.get("createdAt"), b.get("version"),
+                c.get("id"), c.get("name"), c.get("email"), t.get("id"), t.get("name"),
+                s.get("id"), s.get("technician"), s.get("startTime"), s.get("endTime")));
+        Predicate predicate = filter.toPredicate(b, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, b, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<ServiceBooking> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ServiceBooking> b = query.from(ServiceBooking.class);
+        query.select(cb.count(b));
+        Predicate predicate = filter.toPredicate(b, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,86 @@
+package com.tesla.bikeservices.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceBooking;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Booking search filters. Only the criteria actually supplied are applied, and they are ANDed; every predicate
+ * is an equality or a 'prefix%' LIKE on an indexed column, so status and technician searches seek
+ * idx_service_booking_status_created and idx_service_booking_technician_created, and customer searches seek the
+ * customer search-key indexes.
+ */
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<ServiceBooking> matching(String status, String technicianPrefix, String customerPrefix) {
+        List<Specification<ServiceBooking>> filters = new ArrayList<>();
+        if (StringUtils.hasText(status)) {
+            filters.add(hasStatus(status.trim()));
+        }
+        if (StringUtils.hasText(technicianPrefix)) {
+            filters.add(technicianStartsWith(technicianPrefix.trim()));
+        }
+        if (StringUtils.hasText(customerPrefix)) {
+            filters.add(customerStartsWith(customerPrefix));
+        }
+        return Specification.allOf(filters);
+    }
+
+    /**
+     * Creation order, (createdAt, id). With a status filter the constant status is sorted on first: the order is
+     * unchanged, but the status index then returns rows already sorted and a page stops after its last row.
+     */
+    public static Sort creationOrder(String status) {
+        return StringUtils.hasText(status) ? Sort.by("status", "createdAt", "id") : Sort.by("createdAt", "id");
+    }
+
+    public static Specification<ServiceBooking> hasStatus(String status) {
+        return (booking, query, cb) -> cb.equal(booking.get("status"), status);
+    }
+
+    public static Specification<ServiceBooking> hasCustomer(Long customerId) {
+        return (booking, query, cb) -> cb.equal(booking.get("customer").get("id"), customerId);
+    }
+
+    public static Specification<ServiceBooking> hasId(Long id) {
+        return (booking, query, cb) -> cb.equal(booking.get("id"), id);
+    }
+
+    // Technician names are matched as stored, so the prefix stays a range on the technician index
+    public static Specification<ServiceBooking> technicianStartsWith(String prefix) {
+        return (booking, query, cb) -> cb.like(booking.get("technician"), LikePatterns.prefix(prefix), LikePatterns.ESCAPE);
+    }
+
+    // Case-insensitive on name or email through the customers' normalized search keys
+    public static Specification<ServiceBooking> customerStartsWith(String prefix) {
+        String pattern = LikePatterns.prefix(Customer.searchKey(prefix));
+        return (booking, query, cb) -> {
+            Subquery<Long> byName = query.subquery(Long.class);
+            Root<Customer> nameMatch = byName.from(Customer.class);
+            byName.select(nameMatch.get("id")).where(cb.like(nameMatch.get("nameSearch"), pattern, LikePatterns.ESCAPE));
+            Subquery<Long> byEmail = query.subquery(Long.class);
+            Root<Customer> emailMatch = byEmail.from(Customer.class);
+            byEmail.select(emailMatch.get("id")).where(cb.like(emailMatch.get("emailSearch"), pattern, LikePatterns.ESCAPE));
+            return cb.or(booking.get("customer").get("id").in(byName), booking.get("customer").get("id").in(byEmail));
+        };
+    }
+
+    // Keyset position: rows after (createdAt, id) in that order
+    public static Specification<ServiceBooking> createdAfter(LocalDateTime createdAt, Long id) {
+        return (booking, query, cb) -> cb.or(cb.greaterThan(booking.get("createdAt"), createdAt),
+                cb.and(cb.equal(booking.get("createdAt"), createdAt), cb.greaterThan(booking.get("id"), id)));
+    }
+}
@@ -1,23 +1,73 @@
 package com.tesla.bikeservices.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tesla.bikeservices.entity.Customer;
 
+import jakarta.persistence.QueryHint;
+
 @Repository 
-public interface CustomerRepository extends  JpaRepository <Customer, Long> {
-	
-	@Query("SELECT c FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT(:namePrefix, '%')) " +
-		       "OR LOWER(c.email) LIKE LOWER(CONCAT(:emailPrefix, '%')) " +
-		       "OR c.phone LIKE CONCAT(:phonePrefix, '%')")
-		Page<Customer> findAllCustomersByNameOrEmailOrPhone(@Param("namePrefix") String namePrefix,
-		                                                  @Param("emailPrefix") String emailPrefix,
-		                                                  @Param("phonePrefix") String phonePrefix,
-		                                                  Pageable pageable);
+public interface CustomerRepository extends  JpaRepository <Customer, Long>, SparseFieldRepository<Customer> {
+
+	// One LIKE 'prefix%' per indexed search key, unioned, instead of an OR that forces a full scan. The patterns
+	// are built by CustomerService from the normalized keys; a null pattern matches nothing
+	String PREFIX_MATCH = "c.id IN ("
+			+ "SELECT n.id FROM Customer n WHERE n.nameSearch LIKE :namePattern ESCAPE '!' "
+			+ "UNION SELECT e.id FROM Customer e WHERE e.emailSearch LIKE :emailPattern ESCAPE '!' "
+			+ "UNION SELECT p.id FROM Customer p WHERE p.phoneSearch LIKE :phonePattern ESCAPE '!')";
+
+	@Query(value = "SELECT c FROM Customer c WHERE " + PREFIX_MATCH,
+	       countQuery = "SELECT COUNT(c) FROM Customer c WHERE " + PREFIX_MATCH)
+	Page<Customer> findAllCustomersByNameOrEmailOrPhone(@Param("namePattern") String namePattern,
+	                                                  @Param("emailPattern") String emailPattern,
+	                                                  @Param("phonePattern") String phonePattern,
+	                                                  Pageable pageable);
+
+	// Keyset pages: rows after (createdAt, id) in that order, served by idx_customer_created_id
+	@Query("SELECT c FROM Customer c WHERE c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id) " +
+	       "ORDER BY c.createdAt, c.id")
+	List<Customer> findAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+	List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	@Query("SELECT c FROM Customer c WHERE " + PREFIX_MATCH + " " +
+	       "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+	       "ORDER BY c.createdAt, c.id")
+	List<Customer> findAllCustomersByNameOrEmailOrPhoneAfter(@Param("namePattern") String namePattern,
+	                                                       @Param("emailPattern") String emailPattern,
+	                                                       @Param("phonePattern") String phonePattern,
+	                                                       @Param("createdAt") LocalDateTime createdAt,
+	                                                       @Param("id") Long id,
+	                                                       Limit limit);
+
+	// Forward-only export stream over an ID range; rows are read-only and fetched from the driver in batches
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+	              @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<Customer> streamByIdBetweenOrderById(Long fromId, Long toId);
+
+	@Query("SELECT MIN(c.id) FROM Customer c")
+	Optional<Long> findMinId();
+
+	@Query("SELECT MAX(c.id) FROM Customer c")
+	Optional<Long> findMaxId();
+
+	@Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+	Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
 }
\ No newline at end of file
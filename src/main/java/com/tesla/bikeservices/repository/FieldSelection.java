@@ -0,0 +1,68 @@
+package com.tesla.bikeservices.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+/**
+ * The fields picked from one entity's {@link SparseFields}, in the entity's JSON order. Rows are nested maps
+ * holding only those fields, e.g. {@code {"id": 7, "status": "PENDING", "appointmentSlot": {"id": 3, ...}}}.
+ */
+public record FieldSelection<T>(SparseFields<T> fields, List<String> names) {
+
+    public FieldSelection {
+        names = List.copyOf(names);
+    }
+
+    // Adds a field the caller needs itself, e.g. createdAt for a keyset cursor or version for an ETag
+    public FieldSelection<T> with(String name) {
+        if (names.contains(name)) {
+            return this;
+        }
+        List<String> extended = new ArrayList<>(names);
+        extended.add(name);
+        return new FieldSelection<>(fields, fields.ordered(extended));
+    }
+
+    Class<T> type() {
+        return fields.type();
+    }
+
+    String attribute(String name) {
+        return fields.attribute(name);
+    }
+
+    /**
+     * The row for an entity already in memory, e.g. one served from a cache: nothing is read from the database,
+     * and the response carries the same fields as a projected one.
+     */
+    public Map<String, Object> project(Object entity) {
+        BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        // A path through a null association is unreadable; toRow then reports the association itself as null
+        return toRow(names.stream().map(name -> bean.isReadableProperty(name) ? bean.getPropertyValue(name) : null).toList());
+    }
+
+    // values holds one value per name, in the same order
+    Map<String, Object> toRow(List<?> values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            int dot = name.indexOf('.');
+            if (dot < 0) {
+                row.put(name, values.get(i));
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> association = (Map<String, Object>) row.computeIfAbsent(name.substring(0, dot),
+                    owner -> new LinkedHashMap<String, Object>());
+            association.put(name.substring(dot + 1), values.get(i));
+        }
+        // A missing association reads as null, as in the full representation, rather than as an object of nulls
+        row.replaceAll((name, value) -> value instanceof Map<?, ?> association && association.get("id") == null ? null : value);
+        return row;
+    }
+}
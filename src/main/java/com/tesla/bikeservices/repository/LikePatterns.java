@@ -0,0 +1,18 @@
+package com.tesla.bikeservices.repository;
+
+// LIKE patterns built from user input; every query using them declares ESCAPE '!'
+public final class LikePatterns {
+
+    public static final char ESCAPE = '!';
+
+    private LikePatterns() {
+    }
+
+    // Wildcards typed by the user are matched literally, so the pattern stays a pure prefix an index can seek on
+    public static String prefix(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+}
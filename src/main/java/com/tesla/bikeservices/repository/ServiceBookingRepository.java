@@ -1,28 +1,117 @@
 package com.tesla.bikeservices.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.tesla.bikeservices.dto.BookingSummary;
 import com.tesla.bikeservices.entity.ServiceBooking;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface ServiceBookingRepository extends JpaRepository<ServiceBooking, Long> {
+public interface ServiceBookingRepository extends JpaRepository<ServiceBooking, Long>, BookingSearchRepository,
+        SparseFieldRepository<ServiceBooking> {
+
+    // List endpoints read BookingSummary rows: one joined select per page, never one query per association
+    String SUMMARY_SELECT = "SELECT new com.tesla.bikeservices.dto.BookingSummary("
+            + "b.id, b.status, b.priority, b.technician, b.notes, b.actualStartTime, b.actualEndTime, b.createdAt, b.version, "
+            + "c.id, c.name, c.email, t.id, t.name, s.id, s.technician, s.startTime, s.endTime) "
+            + "FROM ServiceBooking b LEFT JOIN b.customer c LEFT JOIN b.serviceType t LEFT JOIN b.appointmentSlot s";
+
+    // Keyset pages: rows after (createdAt, id) in that order, served by idx_service_booking_created_id
+    String AFTER = "(b.createdAt > :createdAt OR (b.createdAt = :createdAt AND b.id > :id))";
+    String KEYSET_ORDER = " ORDER BY b.createdAt, b.id";
+
     List<ServiceBooking> findByCustomerId(Long customerId);
     List<ServiceBooking> findByStatus(String status);
-    
- // Search bookings by status, technician, customer.name, or customer.email with pagination
-    @Query("SELECT b FROM ServiceBooking b WHERE " +
-    	       "(b.status = :status) OR " +
-    	       "(LOWER(b.technician) LIKE LOWER(CONCAT(:technicianPrefix, '%'))) OR " +
-    	       "(LOWER(b.customer.name) LIKE LOWER(CONCAT(:customerPrefix, '%')) OR " +
-    	       "LOWER(b.customer.email) LIKE LOWER(CONCAT(:customerPrefix, '%')))")
-    Page<ServiceBooking> findByCriteria(
-            @Param("status") String status,
-            @Param("technicianPrefix") String technicianPrefix,
-            @Param("customerPrefix") String customerPrefix,
-            Pageable pageable);
+
+    @Query("SELECT b.version FROM ServiceBooking b WHERE b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // One row per spare part (a single row without parts), ordered by part ID; only versions are read, for the ETag
+    @Query("SELECT b.version AS bookingVersion, c.version AS customerVersion, t.version AS serviceTypeVersion,"
+            + " s.version AS slotVersion, p.version AS sparePartVersion FROM ServiceBooking b LEFT JOIN b.customer c"
+            + " LEFT JOIN b.serviceType t LEFT JOIN b.appointmentSlot s LEFT JOIN b.spareParts p WHERE b.id = :id ORDER BY p.id")
+    List<VersionRow> findVersionRowsById(@Param("id") Long id);
+
+    @Query("SELECT b.appointmentSlot.technician FROM ServiceBooking b WHERE b.id = :id")
+    Optional<String> findSlotTechnicianById(@Param("id") Long id);
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(b) FROM ServiceBooking b")
+    Page<BookingSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " WHERE c.id = :customerId")
+    List<BookingSummary> findSummariesByCustomerId(@Param("customerId") Long customerId);
+
+    @Query(SUMMARY_SELECT + " WHERE b.status = :status")
+    List<BookingSummary> findSummariesByStatus(@Param("status") String status);
+
+    @Query(SUMMARY_SELECT + " WHERE " + AFTER + KEYSET_ORDER)
+    List<BookingSummary> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // Forward-only export stream over an ID range; the driver fetches rows in batches instead of buffering them all
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + " WHERE b.id BETWEEN :fromId AND :toId ORDER BY b.id")
+    Stream<BookingSummary> streamSummaries(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT MIN(b.id) FROM ServiceBooking b")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(b.id) FROM ServiceBooking b")
+    Optional<Long> findMaxId();
+
+    @Query(SUMMARY_SELECT + " WHERE b.id IN :ids")
+    List<BookingSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Text the full-text index holds for each booking, read in ID order for bulk rebuilds
+    @Query("SELECT b.id AS id, b.notes AS notes, t.name AS serviceTypeName FROM ServiceBooking b LEFT JOIN b.serviceType t "
+            + "WHERE b.id > :afterId ORDER BY b.id")
+    List<SearchText> findSearchTextAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT b.id AS id, b.notes AS notes, t.name AS serviceTypeName FROM ServiceBooking b LEFT JOIN b.serviceType t "
+            + "WHERE b.id IN :ids")
+    List<SearchText> findSearchTextByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id AS bookingId, p.partName AS partName FROM ServiceBooking b JOIN b.spareParts p WHERE b.id IN :bookingIds")
+    List<PartName> findPartNames(@Param("bookingIds") Collection<Long> bookingIds);
+
+    // Spare part IDs of a whole page of bookings in one query
+    @Query("SELECT b.id AS bookingId, p.id AS sparePartId FROM ServiceBooking b JOIN b.spareParts p WHERE b.id IN :bookingIds")
+    List<SparePartRef> findSparePartRefs(@Param("bookingIds") Collection<Long> bookingIds);
+
+    interface SparePartRef {
+        Long getBookingId();
+        Long getSparePartId();
+    }
+
+    interface VersionRow {
+        Long getBookingVersion();
+        Long getCustomerVersion();
+        Long getServiceTypeVersion();
+        Long getSlotVersion();
+        Long getSparePartVersion();
+    }
+
+    interface SearchText {
+        Long getId();
+        String getNotes();
+        String getServiceTypeName();
+    }
+
+    interface PartName {
+        Long getBookingId();
+        String getPartName();
+    }
 }
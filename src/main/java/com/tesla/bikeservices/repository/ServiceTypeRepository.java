@@ -1,5 +1,8 @@
 package com.tesla.bikeservices.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -7,6 +10,7 @@ import com.tesla.bikeservices.entity.ServiceType;
 
 @Repository
 public interface ServiceTypeRepository extends JpaRepository<ServiceType, Long> {
-	
-	
+
+	// Keyset pages by ID; service types carry no creation timestamp
+	List<ServiceType> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
\ No newline at end of file
@@ -1,10 +1,41 @@
 package com.tesla.bikeservices.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tesla.bikeservices.entity.SparePart;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface SparePartRepository extends JpaRepository<SparePart, Long> {
+
+    // Keyset pages by ID; spare parts carry no creation timestamp
+    List<SparePart> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Part numbers are not unique; the oldest part carrying the number wins
+    Optional<SparePart> findFirstByPartNumberOrderByIdAsc(String partNumber);
+
+    // Rows are always locked in ascending ID order, so overlapping reservations queue up instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM SparePart p WHERE p.id IN :ids ORDER BY p.id")
+    List<SparePart> lockAllByIdInOrder(@Param("ids") Collection<Long> ids);
+
+    // Bulk updates skip Hibernate's versioning, so they bump the version themselves to keep ETags honest
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SparePart p SET p.quantity = p.quantity - 1, p.version = p.version + 1 WHERE p.id IN :ids AND p.quantity > 0")
+    int decrementStock(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SparePart p SET p.quantity = p.quantity + 1, p.version = p.version + 1 WHERE p.id IN :ids")
+    int incrementStock(@Param("ids") Collection<Long> ids);
 }
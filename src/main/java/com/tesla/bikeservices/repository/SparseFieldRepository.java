@@ -0,0 +1,19 @@
+package com.tesla.bikeservices.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+// Sparse fieldset reads: only the selected columns are queried, and only the associations they belong to are joined
+public interface SparseFieldRepository<T> {
+
+    Page<Map<String, Object>> findFields(FieldSelection<T> fields, Specification<T> filter, Pageable pageable);
+
+    // Keyset form: no count query
+    List<Map<String, Object>> findFields(FieldSelection<T> fields, Specification<T> filter, Sort sort, Limit limit);
+}
@@ -0,0 +1,97 @@
+package com.tesla.bikeservices.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+class SparseFieldRepositoryImpl<T> implements SparseFieldRepository<T> {
+
+    private final EntityManager entityManager;
+
+    SparseFieldRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFields(FieldSelection<T> fields, Specification<T> filter, Pageable pageable) {
+        TypedQuery<Tuple> query = fieldQuery(fields, filter, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(rows(fields, query), pageable, () -> count(fields.type(), filter));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(FieldSelection<T> fields, Specification<T> filter, Sort sort, Limit limit) {
+        TypedQuery<Tuple> query = fieldQuery(fields, filter, sort);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return rows(fields, query);
+    }
+
+    // One column per selected field; an association is LEFT JOINed once, and only if one of its fields is selected
+    private TypedQuery<Tuple> fieldQuery(FieldSelection<T> fields, Specification<T> filter, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(fields.type());
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> columns = new ArrayList<>();
+        for (String name : fields.names()) {
+            String[] path = fields.attribute(name).split("\\.");
+            From<?, ?> from = root;
+            for (int i = 0; i < path.length - 1; i++) {
+                From<?, ?> owner = from;
+                String association = path[i];
+                from = joins.computeIfAbsent(String.join(".", Arrays.copyOf(path, i + 1)),
+                        key -> owner.join(association, JoinType.LEFT));
+            }
+            columns.add(from.get(path[path.length - 1]));
+        }
+        query.multiselect(columns);
+        Predicate predicate = filter.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+
+    private List<Map<String, Object>> rows(FieldSelection<T> fields, TypedQuery<Tuple> query) {
+        return query.getResultList().stream().map(tuple -> fields.toRow(Arrays.asList(tuple.toArray()))).toList();
+    }
+
+    private long count(Class<T> type, Specification<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(cb.count(root));
+        Predicate predicate = filter.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,108 @@
+package com.tesla.bikeservices.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+
+/**
+ * The fields of one entity a client may pick with {@code ?fields=}, by their JSON names, and the attribute each is
+ * read from. An association's fields are prefixed with its name, e.g. {@code customer.name}, and naming the
+ * association alone picks all of them. Collections (status history, spare parts) are not selectable: projecting
+ * them would repeat every other column once per element.
+ */
+public final class SparseFields<T> {
+
+    public static final SparseFields<Customer> CUSTOMERS = new SparseFields<>(Customer.class)
+            .field("id").field("name").field("email").field("phone").field("bikeModel").field("createdAt").field("version");
+
+    public static final SparseFields<ServiceType> SERVICE_TYPES = new SparseFields<>(ServiceType.class)
+            .field("id").field("name").field("estimatedDurationMinutes").field("cost").field("description").field("version");
+
+    public static final SparseFields<SparePart> SPARE_PARTS = new SparseFields<>(SparePart.class)
+            .field("id").field("partName").field("partNumber").field("quantity").field("price").field("version");
+
+    // Lombok names the accessors of isAvailable isAvailable()/setAvailable(), so it is "available" in JSON
+    public static final SparseFields<AppointmentSlot> APPOINTMENT_SLOTS = new SparseFields<>(AppointmentSlot.class)
+            .field("id").field("startTime").field("endTime").field("technician").field("available", "isAvailable")
+            .field("version");
+
+    public static final SparseFields<ServiceBooking> SERVICE_BOOKINGS = new SparseFields<>(ServiceBooking.class)
+            .field("id").field("status").field("priority").field("technician").field("notes").field("actualStartTime")
+            .field("actualEndTime").field("createdAt").field("version")
+            .embed("customer", CUSTOMERS).embed("serviceType", SERVICE_TYPES).embed("appointmentSlot", APPOINTMENT_SLOTS);
+
+    private final Class<T> type;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+
+    private SparseFields(Class<T> type) {
+        this.type = type;
+    }
+
+    private SparseFields<T> field(String name) {
+        return field(name, name);
+    }
+
+    private SparseFields<T> field(String name, String attribute) {
+        attributes.put(name, attribute);
+        return this;
+    }
+
+    private SparseFields<T> embed(String association, SparseFields<?> fields) {
+        fields.attributes.forEach((name, attribute) -> field(association + "." + name, association + "." + attribute));
+        return this;
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter. IDs are always included: the entity's own, and an
+     * association's whenever any of its fields is picked, so a missing association still reads as null.
+     */
+    public FieldSelection<T> select(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!attributes.containsKey(name) && attributes.keySet().stream().noneMatch(known -> known.startsWith(name + "."))) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("Fields must name at least one field");
+        }
+        return new FieldSelection<>(this, attributes.keySet().stream().filter(name -> selected(name, requested)).toList());
+    }
+
+    private static boolean selected(String name, Set<String> requested) {
+        int dot = name.lastIndexOf('.');
+        String owner = dot < 0 ? "" : name.substring(0, dot);
+        if (requested.contains(name) || requested.contains(owner)) {
+            return true;
+        }
+        return name.substring(dot + 1).equals("id")
+                &&(owner.isEmpty() || requested.stream().anyMatch(field -> field.startsWith(owner + ".")));
+    }
+
+    Class<T> type() {
+        return type;
+    }
+
+    String attribute(String name) {
+        return attributes.get(name);
+    }
+
+    // The given names in declaration order, which is also the order of the entity's JSON
+    List<String> ordered(Collection<String> names) {
+        return attributes.keySet().stream().filter(names::contains).toList();
+    }
+}
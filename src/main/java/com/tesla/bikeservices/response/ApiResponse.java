@@ -4,6 +4,8 @@ package com.tesla.bikeservices.response;
 import java.time.LocalDateTime;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 @Data
@@ -38,12 +40,16 @@ public class ApiResponse<T> {
     
     
 
+    // Page mode fills page and the totals; cursor mode fills hasNext and nextCursor and skips the count
     @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Pagination {
-        private int page;
+        private Integer page;
         private int size;
-        private long totalElements;
-        private int totalPages;
+        private Long totalElements;
+        private Integer totalPages;
+        private Boolean hasNext;
+        private String nextCursor;
 
         public Pagination(int page, int size, long totalElements, int totalPages) {
             this.page = page;
@@ -51,6 +57,12 @@ public class ApiResponse<T> {
             this.totalElements = totalElements;
             this.totalPages = totalPages;
         }
+
+        public Pagination(int size, boolean hasNext, String nextCursor) {
+            this.size = size;
+            this.hasNext = hasNext;
+            this.nextCursor = nextCursor;
+        }
     }
 }
 
@@ -0,0 +1,48 @@
+package com.tesla.bikeservices.response;
+
+import java.io.IOException;
+
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes the {@link ApiResponse} envelope field by field straight to the generator, without introspecting the
+ * envelope as a bean. A Slice or Page in data is written as its content only: position and totals are already in
+ * pagination, so Spring Data's pageable and sort internals are not repeated on every page. Registered on the
+ * CBOR and Smile mappers only through {@link #module()}; JSON keeps the bean envelope and the full Page shape
+ * its clients already read.
+ */
+public class ApiResponseSerializer extends StdSerializer<ApiResponse<?>> {
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public ApiResponseSerializer() {
+        super((Class) ApiResponse.class);
+    }
+
+    public static Module module() {
+        return new SimpleModule("ApiResponseSerializer").addSerializer(new ApiResponseSerializer());
+    }
+
+    @Override
+    public void serialize(ApiResponse<?> response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(response);
+        gen.writeStringField("status", response.getStatus());
+        gen.writeStringField("message", response.getMessage());
+        if (response.getData() instanceof Slice<?> slice) {
+            gen.writeObjectFieldStart("data");
+            provider.defaultSerializeField("content", slice.getContent(), gen);
+            gen.writeEndObject();
+        } else {
+            provider.defaultSerializeField("data", response.getData(), gen);
+        }
+        provider.defaultSerializeField("errors", response.getErrors(), gen);
+        provider.defaultSerializeField("pagination", response.getPagination(), gen);
+        provider.defaultSerializeField("timestamp", response.getTimestamp(), gen);
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,46 @@
+package com.tesla.bikeservices.response;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import com.tesla.bikeservices.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags derived from entity versions. A resource's tag is built from the version of every entity
+ * serialized into it, so it changes whenever the representation does and can be compared without loading or
+ * serializing the response body.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    // "3" for a single entity; "3.0.1.2" for a booking followed by the entities it embeds
+    public static String of(Object... versions) {
+        return Arrays.stream(versions).map(String::valueOf).collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    /**
+     * Whether an {@code If-Match} header allows a write to a resource currently tagged {@code currentTag}. A
+     * missing header makes the write unconditional. Weak tags never match, since If-Match compares strongly.
+     */
+    public static boolean matches(String ifMatch, String currentTag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*") || candidate.equals(currentTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Rejects a conditional write with 412 when the resource, e.g. "Service type with ID 3", has moved on
+    public static void requireMatch(String ifMatch, String currentTag, String resource) {
+        if (!matches(ifMatch, currentTag)) {
+            throw new PreconditionFailedException(resource + " has been modified, reload it and retry", currentTag);
+        }
+    }
+}
@@ -1,23 +1,88 @@
 package com.tesla.bikeservices.service;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.tesla.bikeservices.dto.SlotWindow;
 import com.tesla.bikeservices.entity.AppointmentSlot;
 import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.response.EntityTags;
+import com.tesla.bikeservices.service.SlotAvailabilityIndex.SlotSnapshot;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
 public class AppointmentSlotService {
 
+    private static final Logger logger = LogManager.getLogger(AppointmentSlotService.class);
+    private static final int INDEX_BUILD_ATTEMPTS = 3;
+
     private final AppointmentSlotRepository appointmentSlotRepository;
+    private final SlotAvailabilityIndex availabilityIndex = new SlotAvailabilityIndex();
+    private final SlotDayCache dayCache;
 
     public AppointmentSlotService(AppointmentSlotRepository appointmentSlotRepository) {
+        this(appointmentSlotRepository, 31, Duration.ofSeconds(30));
+    }
+
+    @Autowired
+    public AppointmentSlotService(AppointmentSlotRepository appointmentSlotRepository,
+            @Value("${slot-cache.max-days:31}") int maxCachedDays,
+            @Value("${slot-cache.ttl:PT30S}") Duration cacheTtl) {
         this.appointmentSlotRepository = appointmentSlotRepository;
+        this.dayCache = new SlotDayCache(maxCachedDays, cacheTtl);
+    }
+
+    // Loads the availability index once the application is up; until it is consistent, searches go to the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildAvailabilityIndex() {
+        for (int attempt = 1; attempt <= INDEX_BUILD_ATTEMPTS; attempt++) {
+            if (availabilityIndex.rebuild(appointmentSlotRepository::findAll,
+                    appointmentSlotRepository::count,
+                    appointmentSlotRepository::countByIsAvailableTrue)) {
+                logger.info("Slot availability index built on attempt {}", attempt);
+                return;
+            }
+            logger.warn("Slot availability index did not match the repository on attempt {}", attempt);
+        }
+        logger.error("Slot availability index is inconsistent, serving availability from the database");
+    }
+
+    // Rebuilds the index when it is unready or its counts no longer match the repository
+    @Scheduled(fixedDelayString = "${slot-index.reconcile-interval:PT5M}",
+               initialDelayString = "${slot-index.reconcile-interval:PT5M}")
+    public void reconcileAvailabilityIndex() {
+        if (availabilityIndex.isReady() && availabilityIndex.matches(appointmentSlotRepository.count(),
+                appointmentSlotRepository.countByIsAvailableTrue())) {
+            return;
+        }
+        logger.warn("Slot availability index does not match the repository, rebuilding it");
+        if (!availabilityIndex.rebuild(appointmentSlotRepository::findAll,
+                appointmentSlotRepository::count,
+                appointmentSlotRepository::countByIsAvailableTrue)) {
+            logger.error("Slot availability index is inconsistent, serving availability from the database");
+        }
     }
 
     @Transactional
@@ -25,52 +90,223 @@ public class AppointmentSlotService {
         if (slot.getStartTime().isAfter(slot.getEndTime())) {
             throw new IllegalArgumentException("Start time must be before end time");
         }
-        if (appointmentSlotRepository.findByTechnicianAndStartTimeBetween(
-                slot.getTechnician(), slot.getStartTime(), slot.getEndTime())
-                .stream().anyMatch(existing -> !existing.getId().equals(slot.getId()))) {
-            throw new IllegalStateException("Technician is already booked for this time");
+        requireNoOverlap(slot.getTechnician(), slot.getStartTime(), slot.getEndTime(), slot.getId());
+        AppointmentSlot savedSlot = appointmentSlotRepository.save(slot);
+        indexAfterCommit(savedSlot);
+        return savedSlot;
+    }
+
+    /**
+     * Inserts one technician's generated slots in a single transaction. Candidates that clash with an existing
+     * slot or with an earlier candidate are skipped; the rest go out as batched inserts. Returns the saved slots.
+     */
+    @Transactional
+    public List<AppointmentSlot> createSlots(String technician, List<AppointmentSlot> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime from = candidates.stream().map(AppointmentSlot::getStartTime).min(LocalDateTime::compareTo).get();
+        LocalDateTime to = candidates.stream().map(AppointmentSlot::getEndTime).max(LocalDateTime::compareTo).get();
+        SlotIntervalMap intervals = new SlotIntervalMap();
+        appointmentSlotRepository.findOverlapping(technician, from, to)
+                .forEach(existing -> intervals.add(existing.getId(), existing.getStartTime(), existing.getEndTime()));
+
+        List<AppointmentSlot> accepted = new ArrayList<>();
+        for (AppointmentSlot candidate : candidates) {
+            if (!intervals.overlaps(candidate.getStartTime(), candidate.getEndTime(), null)) {
+                intervals.add(null, candidate.getStartTime(), candidate.getEndTime());
+                accepted.add(candidate);
+            }
         }
-        return appointmentSlotRepository.save(slot);
+        List<AppointmentSlot> savedSlots = appointmentSlotRepository.saveAll(accepted);
+        List<AppointmentSlot> snapshots = savedSlots.stream().map(this::snapshotOf).toList();
+        AfterCommit.run(() -> snapshots.forEach(snapshot -> {
+            availabilityIndex.put(snapshot);
+            dayCache.invalidate(snapshot.getId(), snapshot.getStartTime());
+        }));
+        return savedSlots;
     }
 
     public AppointmentSlot getAppointmentSlot(Long id) {
         return findAppointmentSlotOrThrow(id);
     }
 
+    // Sparse fieldset read (?fields=): only the selected columns are read. The row carries version, for the ETag
+    public Map<String, Object> getAppointmentSlot(Long id, FieldSelection<AppointmentSlot> fields) {
+        return appointmentSlotRepository.findFields(fields.with("version"), (slot, query, cb) -> cb.equal(slot.get("id"), id),
+                        Sort.unsorted(), Limit.of(1))
+                .stream().findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Appointment slot with ID " + id + " not found"));
+    }
+
     public List<AppointmentSlot> getAvailableSlots(LocalDateTime start, LocalDateTime end) {
-        return appointmentSlotRepository.findByStartTimeBetweenAndIsAvailableTrue(start, end);
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.findAvailable(start, end);
+        }
+        return findAvailableInDatabase(null, start, end);
     }
 
     public List<AppointmentSlot> getAvailableSlotsByTechnician(String technician, LocalDateTime start, LocalDateTime end) {
-        return appointmentSlotRepository.findByTechnicianAndStartTimeBetween(technician, start, end);
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.findAvailable(technician, start, end);
+        }
+        return findAvailableInDatabase(technician, start, end);
+    }
+
+    /**
+     * The earliest {@code count} windows of back-to-back available slots, across all technicians, that start
+     * within [from, until] and last at least {@code duration}.
+     */
+    public List<SlotWindow> findEarliestWindows(Duration duration, LocalDateTime from, LocalDateTime until, int count) {
+        // A window starting by "until" may run past it, so slots are fetched with the service duration of slack
+        LocalDateTime lastSlotStart = until.plus(duration);
+        Collection<List<SlotSnapshot>> freeSlots;
+        if (availabilityIndex.isReady()) {
+            freeSlots = availabilityIndex.availableByTechnician(from, lastSlotStart);
+        } else {
+            freeSlots = findAvailableInDatabase(null, from, lastSlotStart).stream()
+                    .sorted(Comparator.comparing(AppointmentSlot::getStartTime))
+                    .collect(Collectors.groupingBy(AppointmentSlot::getTechnician,
+                            Collectors.mapping(SlotSnapshot::of, Collectors.toList())))
+                    .values();
+        }
+        return SlotWindowFinder.findEarliest(freeSlots, duration, until, count);
     }
 
-    @Transactional
     public AppointmentSlot updateAppointmentSlot(Long id, AppointmentSlot slotDetails) {
+        return updateAppointmentSlot(id, slotDetails, null);
+    }
+
+    // ifMatch is the client's If-Match header, or null for an unconditional update
+    @Transactional
+    public AppointmentSlot updateAppointmentSlot(Long id, AppointmentSlot slotDetails, String ifMatch) {
         AppointmentSlot slot = findAppointmentSlotOrThrow(id);
+        EntityTags.requireMatch(ifMatch, EntityTags.of(slot.getVersion()), "Appointment slot with ID " + id);
         if (slotDetails.getStartTime().isAfter(slotDetails.getEndTime())) {
             throw new IllegalArgumentException("Start time must be before end time");
         }
-        if (appointmentSlotRepository.findByTechnicianAndStartTimeBetween(
-                slotDetails.getTechnician(), slotDetails.getStartTime(), slotDetails.getEndTime())
-                .stream().anyMatch(existing -> !existing.getId().equals(id))) {
-            throw new IllegalStateException("Technician is already booked for this time");
-        }
+        requireNoOverlap(slotDetails.getTechnician(), slotDetails.getStartTime(), slotDetails.getEndTime(), id);
         slot.setStartTime(slotDetails.getStartTime());
         slot.setEndTime(slotDetails.getEndTime());
         slot.setTechnician(slotDetails.getTechnician());
-        slot.setAvailable(slotDetails.isAvailable());
-        return appointmentSlotRepository.save(slot);
+        // Availability only changes through claimSlot and releaseSlot; flushing assigns the version the index records
+        AppointmentSlot savedSlot = appointmentSlotRepository.saveAndFlush(slot);
+        indexAfterCommit(savedSlot);
+        return savedSlot;
     }
 
     @Transactional
     public void deleteAppointmentSlot(Long id) {
         findAppointmentSlotOrThrow(id);
         appointmentSlotRepository.deleteById(id);
+        AfterCommit.run(() -> {
+            availabilityIndex.remove(id);
+            dayCache.invalidate(id);
+        });
+    }
+
+    // Claims the slot with a single conditional UPDATE so concurrent bookings of the same slot cannot both succeed
+    @Transactional
+    public AppointmentSlot claimSlot(Long id) {
+        if (appointmentSlotRepository.claimSlot(id) == 0) {
+            if (!appointmentSlotRepository.existsById(id)) {
+                throw new EntityNotFoundException("Appointment slot with ID " + id + " not found");
+            }
+            throw new IllegalStateException("Selected appointment slot is not available");
+        }
+        Long version = appointmentSlotRepository.findVersionById(id).orElse(null);
+        AfterCommit.run(() -> setAvailable(id, false, version));
+        return appointmentSlotRepository.getReferenceById(id);
+    }
+
+    @Transactional
+    public void releaseSlot(Long id) {
+        appointmentSlotRepository.releaseSlot(id);
+        Long version = appointmentSlotRepository.findVersionById(id).orElse(null);
+        AfterCommit.run(() -> setAvailable(id, true, version));
+    }
+
+    // Locks the slots in ID order; changes made to the returned managed slots must go through markBooked
+    @Transactional
+    public Map<Long, AppointmentSlot> lockSlots(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return appointmentSlotRepository.lockAllByIdInOrder(ids).stream()
+                .collect(Collectors.toMap(AppointmentSlot::getId, Function.identity()));
+    }
+
+    // Books a slot already locked by lockSlots; the change is flushed with the caller's transaction
+    public void markBooked(AppointmentSlot slot) {
+        slot.setAvailable(false);
+        Long id = slot.getId();
+        // The version is bumped when the caller's transaction flushes, so it is read once that has committed
+        AfterCommit.run(() -> setAvailable(id, false, slot.getVersion()));
+    }
+
+    public String findTechnician(Long id) {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.technicianOf(id);
+        }
+        return appointmentSlotRepository.findTechnicianById(id).orElse(null);
+    }
+
+    public AppointmentSlot getReference(Long id) {
+        return appointmentSlotRepository.getReferenceById(id);
+    }
+
+    // A slot clashes with any other slot of the same technician that starts before it ends and ends after it starts
+    private void requireNoOverlap(String technician, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        boolean overlaps = availabilityIndex.isReady()
+                ? availabilityIndex.overlaps(technician, start, end, excludeId)
+                : appointmentSlotRepository.existsOverlapping(technician, start, end, excludeId);
+        if (overlaps) {
+            throw new IllegalStateException("Technician is already booked for this time");
+        }
+    }
+
+    // Served from day buckets while the window fits in the cache, straight from the database otherwise
+    private List<AppointmentSlot> findAvailableInDatabase(String technician, LocalDateTime start, LocalDateTime end) {
+        List<AppointmentSlot> slots = dayCache.findAvailable(technician, start, end, this::findStartingOn);
+        if (slots != null) {
+            return slots;
+        }
+        return technician != null
+                ? appointmentSlotRepository.findByTechnicianAndStartTimeBetweenAndIsAvailableTrue(technician, start, end)
+                : appointmentSlotRepository.findByStartTimeBetweenAndIsAvailableTrue(start, end);
+    }
+
+    private List<AppointmentSlot> findStartingOn(LocalDate day) {
+        return appointmentSlotRepository.findStartingWithin(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    private void setAvailable(Long id, boolean available, Long version) {
+        availabilityIndex.setAvailable(id, available, version);
+        dayCache.invalidate(id);
+    }
+
+    private void indexAfterCommit(AppointmentSlot slot) {
+        AppointmentSlot snapshot = snapshotOf(slot);
+        AfterCommit.run(() -> {
+            availabilityIndex.put(snapshot);
+            dayCache.invalidate(snapshot.getId(), snapshot.getStartTime());
+        });
+    }
+
+    // Copy now, the entity may change again before the transaction commits
+    private AppointmentSlot snapshotOf(AppointmentSlot slot) {
+        AppointmentSlot snapshot = new AppointmentSlot();
+        snapshot.setId(slot.getId());
+        snapshot.setTechnician(slot.getTechnician());
+        snapshot.setStartTime(slot.getStartTime());
+        snapshot.setEndTime(slot.getEndTime());
+        snapshot.setAvailable(slot.isAvailable());
+        snapshot.setVersion(slot.getVersion());
+        return snapshot;
     }
 
     private AppointmentSlot findAppointmentSlotOrThrow(Long id) {
         return appointmentSlotRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Appointment slot with ID " + id + " not found"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.tesla.bikeservices.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tesla.bikeservices.exception.LaneSaturatedException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional single-writer execution for booking writes. Each technician hashes to one of a fixed set of lanes,
+ * each served by a single thread, so writes touching one technician's slots run one after another instead of
+ * racing each other in the database, while writes for technicians on other lanes run in parallel. Callers
+ * block until their write has run on its lane. Disabled by default; writes then run on the calling thread.
+ */
+@Component
+public class BookingLanes {
+
+    private static final Logger logger = LogManager.getLogger(BookingLanes.class);
+
+    private final boolean enabled;
+    private final List<ThreadPoolExecutor> lanes = new ArrayList<>();
+    private final Timer waitTimer;
+    private final Duration retryAfter;
+
+    public BookingLanes(MeterRegistry meterRegistry, boolean enabled, int laneCount, int queueCapacity) {
+        this(meterRegistry, enabled, laneCount, queueCapacity, Duration.ofSeconds(1));
+    }
+
+    @Autowired
+    public BookingLanes(MeterRegistry meterRegistry,
+                        @Value("${booking.lanes.enabled:false}") boolean enabled,
+                        @Value("${booking.lanes.count:16}") int laneCount,
+                        @Value("${booking.lanes.queue-capacity:1000}") int queueCapacity,
+                        @Value("${booking.lanes.retry-after:PT1S}") Duration retryAfter) {
+        this.enabled = enabled;
+        this.retryAfter = retryAfter;
+        this.waitTimer = Timer.builder("booking.lane.wait")
+                .description("Time booking writes spend queued before their lane runs them")
+                .register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < laneCount; i++) {
+            String laneName = "booking-lane-" + i;
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, laneName);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            Gauge.builder("booking.lane.queue.depth", lane, executor -> executor.getQueue().size())
+                    .description("Booking writes waiting in the lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            lanes.add(lane);
+        }
+        logger.info("Booking lanes enabled with {} lanes", laneCount);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs {@code write} on the lane of the technician {@code technician} resolves to, or on the calling thread
+     * when lanes are disabled or there is no technician to key on. The key is only resolved when lanes are on.
+     */
+    public <T> T execute(Supplier<String> technician, Supplier<T> write) {
+        return execute(technician, () -> null, write);
+    }
+
+    /**
+     * Runs a write touching two technicians' slots, e.g. a booking moved to another technician's slot, while it
+     * holds both their lanes. The write runs on the lower-numbered lane after an idle task has taken the other one;
+     * every such write takes the higher-numbered lane first, so two of them can never wait on each other.
+     */
+    public <T> T execute(Supplier<String> technician, Supplier<String> otherTechnician, Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        // A running transaction cannot follow the write to another thread
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        String key = technician.get();
+        String otherKey = otherTechnician.get();
+        if (key == null && otherKey == null) {
+            return write.get();
+        }
+        if (key == null || otherKey == null || laneOf(key) == laneOf(otherKey)) {
+            String laneKey = key != null ? key : otherKey;
+            return runOnLane(laneOf(laneKey), laneKey, write);
+        }
+        int first = Math.max(laneOf(key), laneOf(otherKey));
+        int second = Math.min(laneOf(key), laneOf(otherKey));
+        CompletableFuture<Void> held = new CompletableFuture<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            lanes.get(first).execute(() -> {
+                held.complete(null);
+                done.join();
+            });
+        } catch (RejectedExecutionException e) {
+            throw saturated(first == laneOf(key) ? key : otherKey);
+        }
+        try {
+            held.join();
+            return runOnLane(second, second == laneOf(key) ? key : otherKey, write);
+        } finally {
+            done.complete(null);
+        }
+    }
+
+    private int laneOf(String technician) {
+        return Math.floorMod(technician.hashCode(), lanes.size());
+    }
+
+    private <T> T runOnLane(int laneIndex, String key, Supplier<T> write) {
+        ThreadPoolExecutor lane = lanes.get(laneIndex);
+        // Hand the caller's open-in-view EntityManager to the lane while the caller waits, so the entities the
+        // write returns can still lazy-load when the caller serializes them
+        Map<Object, Object> resources = new HashMap<>(TransactionSynchronizationManager.getResourceMap());
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                resources.forEach(TransactionSynchronizationManager::bindResource);
+                try {
+                    return write.get();
+                } finally {
+                    resources.keySet().forEach(TransactionSynchronizationManager::unbindResourceIfPossible);
+                }
+            }, lane).join();
+        } catch (RejectedExecutionException e) {
+            throw saturated(key);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private LaneSaturatedException saturated(String key) {
+        return new LaneSaturatedException("Too many pending bookings for technician " + key + ", please retry", retryAfter);
+    }
+
+    public void run(Supplier<String> technician, Runnable write) {
+        execute(technician, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+    }
+}
@@ -0,0 +1,274 @@
+package com.tesla.bikeservices.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository.PartName;
+import com.tesla.bikeservices.repository.ServiceBookingRepository.SearchText;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Embedded Lucene index over booking notes, service type names and spare part names, kept on local disk under
+ * {@code booking-search.index-dir} (in memory when that is empty). It is rebuilt in bulk when the application
+ * starts or on demand, and {@link ServiceBookingService} re-indexes the bookings a transaction touched once it
+ * commits. Matches are ranked by BM25: every query term has to occur in one of the fields, notes count most, and
+ * notes holding the terms as a phrase rank higher still.
+ */
+@Service
+public class BookingSearchService {
+
+    private static final Logger logger = LogManager.getLogger(BookingSearchService.class);
+    public static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int MAX_TERMS = 32;
+    private static final int REBUILD_CHUNK = 1000;
+
+    private static final String ID = "id";
+    private static final String NOTES = "notes";
+    private static final String SERVICE_TYPE = "serviceType";
+    private static final String PARTS = "parts";
+
+    private final ServiceBookingRepository serviceBookingRepository;
+    private final TransactionTemplate readTransaction;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public BookingSearchService(ServiceBookingRepository serviceBookingRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${booking-search.index-dir:}") String indexDir) {
+        this.serviceBookingRepository = serviceBookingRepository;
+        // Index updates run after the booking transaction has committed, so they read in a transaction of their own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the booking search index at " + indexDir, e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        rebuild();
+    }
+
+    /**
+     * Re-indexes every booking in ID order, a chunk per read. Bookings are written by ID, so writes indexed
+     * meanwhile are never duplicated. Returns the number of bookings indexed.
+     */
+    public synchronized long rebuild() {
+        long startedAt = System.nanoTime();
+        long indexed = 0;
+        try {
+            writer.deleteAll();
+            long afterId = 0;
+            List<Document> chunk;
+            do {
+                long from = afterId;
+                chunk = readTransaction.execute(status -> documents(
+                        serviceBookingRepository.findSearchTextAfter(from, Limit.of(REBUILD_CHUNK))));
+                for (Document document : chunk) {
+                    writer.updateDocument(new Term(ID, document.get(ID)), document);
+                    afterId = Long.parseLong(document.get(ID));
+                }
+                indexed += chunk.size();
+            } while (chunk.size() == REBUILD_CHUNK);
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rebuild the booking search index", e);
+        }
+        logger.info("Booking search index rebuilt with {} bookings in {} ms", indexed, (System.nanoTime() - startedAt) / 1_000_000);
+        return indexed;
+    }
+
+    // Re-reads the bookings once the current transaction commits; IDs that no longer exist are dropped from the index
+    public void indexAfterCommit(Collection<Long> bookingIds) {
+        Set<Long> ids = Set.copyOf(bookingIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> index(ids));
+    }
+
+    /**
+     * Booking IDs matching {@code text}, best first, with their scores. Deep pages are capped at
+     * {@link #MAX_RESULT_WINDOW} matches.
+     */
+    public Page<Match> search(String text, Pageable pageable) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Only the first " + MAX_RESULT_WINDOW + " matches can be paged through");
+        }
+        Query query = parse(text);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) pageable.getOffset();
+                TopDocs top = searcher.search(query, offset + pageable.getPageSize());
+                StoredFields storedFields = searcher.storedFields();
+                List<Match> matches = new ArrayList<>();
+                for (int i = offset; i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    matches.add(new Match(Long.parseLong(storedFields.document(hit.doc, Set.of(ID)).get(ID)), hit.score));
+                }
+                long total = top.totalHits.relation == TotalHits.Relation.EQUAL_TO ? top.totalHits.value : searcher.count(query);
+                return new PageImpl<>(matches, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the booking index", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void index(Set<Long> ids) {
+        try {
+            List<Document> documents = readTransaction.execute(status ->
+                    documents(serviceBookingRepository.findSearchTextByIdIn(ids)));
+            Set<String> missing = ids.stream().map(String::valueOf).collect(Collectors.toSet());
+            for (Document document : documents) {
+                writer.updateDocument(new Term(ID, document.get(ID)), document);
+                missing.remove(document.get(ID));
+            }
+            for (String id : missing) {
+                writer.deleteDocuments(new Term(ID, id));
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            // The booking itself is committed; a stale index entry is corrected by the next rebuild
+            logger.error("Could not update the booking search index for bookings {}", ids, e);
+        }
+    }
+
+    private List<Document> documents(List<SearchText> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> partNames = serviceBookingRepository.findPartNames(texts.stream().map(SearchText::getId).toList())
+                .stream()
+                .filter(part -> part.getPartName() != null)
+                .collect(Collectors.groupingBy(PartName::getBookingId,
+                        Collectors.mapping(PartName::getPartName, Collectors.joining("\n"))));
+        List<Document> documents = new ArrayList<>(texts.size());
+        for (SearchText text : texts) {
+            Document document = new Document();
+            document.add(new StringField(ID, String.valueOf(text.getId()), Field.Store.YES));
+            addText(document, NOTES, text.getNotes());
+            addText(document, SERVICE_TYPE, text.getServiceTypeName());
+            addText(document, PARTS, partNames.get(text.getId()));
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private Query parse(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable terms");
+        }
+        if (terms.size() > MAX_TERMS) {
+            throw new IllegalArgumentException("Query cannot have more than " + MAX_TERMS + " terms");
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(new BooleanQuery.Builder()
+                    .add(new TermQuery(new Term(NOTES, term)), Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(PARTS, term)), 0.8f), Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(SERVICE_TYPE, term)), 0.5f), Occur.SHOULD)
+                    .build(), Occur.MUST);
+        }
+        if (terms.size() > 1) {
+            query.add(new BoostQuery(new PhraseQuery(1, NOTES, terms.toArray(String[]::new)), 2f), Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    // Same analysis as the indexed text: lower-cased, stop words dropped, English stems
+    private List<String> analyze(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream tokens = analyzer.tokenStream(NOTES, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return List.copyOf(terms);
+    }
+
+    public record Match(Long bookingId, float score) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.tesla.bikeservices.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.dto.CustomerImportResult;
+import com.tesla.bikeservices.dto.ExportFormat;
+import com.tesla.bikeservices.entity.Customer;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk customer import from CSV or NDJSON. The input is read line by line in chunks, so memory is bounded by
+ * the chunk size rather than the upload. Each chunk is validated in parallel across cores with the entity's Bean
+ * Validation constraints, and its valid rows are inserted in one transaction through JDBC batching. Bad lines are
+ * reported by line number and never stop the rest of the import.
+ */
+@Service
+public class CustomerImportService {
+
+    private static final Logger logger = LogManager.getLogger(CustomerImportService.class);
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 500;
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "phone", "bikeModel");
+
+    private final CustomerService customerService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerImportService(CustomerService customerService, Validator validator, ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager) {
+        this.customerService = customerService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CustomerImportResult importCustomers(ExportFormat format, InputStream input) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportReport report = new ImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        Map<String, Integer> columns = null;
+        if (format == ExportFormat.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import must start with a header line");
+            }
+            columns = csvColumns(header);
+        }
+
+        List<RawLine> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(new RawLine(lineNumber, line));
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, format, columns, report);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, format, columns, report);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        long processed = report.imported + report.rejected;
+        long rowsPerSecond = processed * 1000 / elapsedMillis;
+        logger.info("Imported {} customers, rejected {}, in {} ms ({} rows/s)",
+                report.imported, report.rejected, elapsedMillis, rowsPerSecond);
+        return new CustomerImportResult(report.imported, report.rejected, elapsedMillis, rowsPerSecond,
+                report.errors, report.rejected > report.errors.size());
+    }
+
+    private void importChunk(List<RawLine> chunk, ExportFormat format, Map<String, Integer> columns, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Parsing and validation are CPU-bound and independent per line, so they fan out over the common pool
+        List<ParsedLine> parsed = chunk.parallelStream()
+                .map(line -> parse(line, format, columns))
+                .toList();
+
+        List<ParsedLine> valid = parsed.stream().filter(line -> line.error() == null).toList();
+        parsed.stream().filter(line -> line.error() != null).forEach(line -> report.reject(line.number(), line.error()));
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> customerService.saveAll(valid.stream().map(ParsedLine::customer).toList()));
+            report.imported += valid.size();
+        } catch (RuntimeException e) {
+            logger.error("Customer import batch of {} rows starting at line {} failed: {}",
+                    valid.size(), valid.get(0).number(), e.getMessage());
+            valid.forEach(line -> report.reject(line.number(), "Batch insert failed: " + e.getMessage()));
+        }
+    }
+
+    private ParsedLine parse(RawLine line, ExportFormat format, Map<String, Integer> columns) {
+        Customer customer;
+        try {
+            customer = format == ExportFormat.CSV ? fromCsv(line.text(), columns) : fromJson(line.text());
+        } catch (JsonProcessingException e) {
+            return new ParsedLine(line.number(), null, "Unreadable line: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ParsedLine(line.number(), null, "Unreadable line: " + e.getMessage());
+        }
+        String violations = validator.validate(customer).stream()
+                .sorted(Comparator.comparing((ConstraintViolation<Customer> violation) -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+        return new ParsedLine(line.number(), customer, violations.isEmpty() ? null : violations);
+    }
+
+    private Customer fromJson(String line) throws JsonProcessingException {
+        Customer customer = objectMapper.readValue(line, Customer.class);
+        // Imports always create new rows
+        customer.setId(null);
+        return customer;
+    }
+
+    private Customer fromCsv(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        Customer customer = new Customer();
+        customer.setName(column(values, columns, "name"));
+        customer.setEmail(column(values, columns, "email"));
+        customer.setPhone(column(values, columns, "phone"));
+        customer.setBikeModel(column(values, columns, "bikeModel"));
+        return customer;
+    }
+
+    private Map<String, Integer> csvColumns(String header) {
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        int index = columns.get(name);
+        return index < values.size() ? values.get(index) : null;
+    }
+
+    // One RFC 4180 record on a single line; quoted fields may contain separators and doubled quotes
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private record RawLine(long number, String text) {
+    }
+
+    private record ParsedLine(long number, Customer customer, String error) {
+    }
+
+    private static final class ImportReport {
+
+        private int imported;
+        private int rejected;
+        private final List<CustomerImportResult.LineError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CustomerImportResult.LineError(line, message));
+            }
+        }
+    }
+}
@@ -1,32 +1,109 @@
 package com.tesla.bikeservices.service;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.tesla.bikeservices.dto.CustomerSuggestion;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.Customer;
 import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.LikePatterns;
+import com.tesla.bikeservices.response.EntityTags;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
 public class CustomerService {
 
+    private static final Logger logger = LogManager.getLogger(CustomerService.class);
+    private static final int SUGGEST_LOAD_CHUNK = 1000;
+    public static final int MAX_SUGGESTIONS = 50;
+
     private final CustomerRepository customerRepository;
+    private final CustomerSuggestIndex suggestIndex;
+    private final int maxSuggestCustomers;
 
     public CustomerService(CustomerRepository customerRepository) {
+        this(customerRepository, 1_000_000);
+    }
+
+    @Autowired
+    public CustomerService(CustomerRepository customerRepository,
+                           @Value("${customer-suggest.max-customers:1000000}") int maxSuggestCustomers) {
         this.customerRepository = customerRepository;
+        this.suggestIndex = new CustomerSuggestIndex(maxSuggestCustomers);
+        this.maxSuggestCustomers = maxSuggestCustomers;
+    }
+
+    // Loads the autocomplete index once the application is up; until then suggestions come from the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSuggestIndex() {
+        long startedAt = System.nanoTime();
+        boolean ready = suggestIndex.rebuild(consumer -> {
+            List<Customer> chunk = customerRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(SUGGEST_LOAD_CHUNK));
+            while (!chunk.isEmpty()) {
+                chunk.forEach(consumer);
+                chunk = chunk.size() < SUGGEST_LOAD_CHUNK ? List.of() : customerRepository.findByIdGreaterThanOrderByIdAsc(
+                        chunk.get(chunk.size() - 1).getId(), Limit.of(SUGGEST_LOAD_CHUNK));
+            }
+        }, customerRepository::count);
+        if (ready) {
+            logger.info("Customer suggest index built with {} customers in {} ms", suggestIndex.size(),
+                    (System.nanoTime() - startedAt) / 1_000_000);
+        } else {
+            logger.warn("Customer suggest index not built, serving suggestions from the database");
+        }
+    }
+
+    // Rebuilds the index when a build failed or it was dropped for outgrowing its bound, once the customers fit again
+    @Scheduled(fixedDelayString = "${customer-suggest.reconcile-interval:PT5M}",
+               initialDelayString = "${customer-suggest.reconcile-interval:PT5M}")
+    public void reconcileSuggestIndex() {
+        long count = customerRepository.count();
+        if (suggestIndex.isReady() ? suggestIndex.size() == count : count > maxSuggestCustomers) {
+            return;
+        }
+        buildSuggestIndex();
     }
 
     @Async 
     public CompletableFuture<Customer> createCustomer(Customer customer) {
     	Customer savedCustomer = customerRepository.save(customer);
+        indexAfterCommit(savedCustomer);
         return CompletableFuture.completedFuture(savedCustomer);
     }
 
+    // Bulk inserts from the import; runs in the caller's transaction and indexes the rows once it commits
+    public List<Customer> saveAll(List<Customer> customers) {
+        List<Customer> savedCustomers = customerRepository.saveAll(customers);
+        List<CustomerSuggestion> snapshots = savedCustomers.stream().map(CustomerSuggestion::from).toList();
+        AfterCommit.run(() -> {
+            for (int i = 0; i < snapshots.size(); i++) {
+                index(snapshots.get(i), savedCustomers.get(i).getVersion());
+            }
+        });
+        return savedCustomers;
+    }
+
     public Customer getCustomer(Long id) {
         return findCustomerOrThrow(id);
     }
@@ -35,25 +112,107 @@ public class CustomerService {
         return customerRepository.findAll(pageable);
     }
 
+    public Slice<Customer> getCustomersAfter(PageCursor cursor, int size) {
+        return PageCursor.slice(customerRepository.findAfter(cursor.createdAt(), cursor.id(), PageCursor.limit(size)), size);
+    }
+
+    // Sparse fieldset reads (?fields=): only the selected columns are read. Rows carry version, for the ETag
+    public Map<String, Object> getCustomer(Long id, FieldSelection<Customer> fields) {
+        return customerRepository.findFields(fields.with("version"), (customer, query, cb) -> cb.equal(customer.get("id"), id),
+                        Sort.unsorted(), Limit.of(1))
+                .stream().findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Customer with ID " + id + " not found"));
+    }
+
+    public Page<Map<String, Object>> getAllCustomers(FieldSelection<Customer> fields, Pageable pageable) {
+        return customerRepository.findFields(fields, Specification.allOf(), pageable);
+    }
+
+    // Rows carry createdAt, which the next cursor is built from
+    public Slice<Map<String, Object>> getCustomersAfter(FieldSelection<Customer> fields, PageCursor cursor, int size) {
+        Specification<Customer> after = (customer, query, cb) -> cb.or(
+                cb.greaterThan(customer.get("createdAt"), cursor.createdAt()),
+                cb.and(cb.equal(customer.get("createdAt"), cursor.createdAt()), cb.greaterThan(customer.get("id"), cursor.id())));
+        return PageCursor.slice(customerRepository.findFields(fields.with("createdAt"), after, Sort.by("createdAt", "id"),
+                PageCursor.limit(size)), size);
+    }
+
     public Customer updateCustomer(Long id, Customer customerDetails) {
+        return updateCustomer(id, customerDetails, null);
+    }
+
+    // ifMatch is the client's If-Match header, or null for an unconditional update
+    public Customer updateCustomer(Long id, Customer customerDetails, String ifMatch) {
         Customer customer = findCustomerOrThrow(id);
+        EntityTags.requireMatch(ifMatch, EntityTags.of(customer.getVersion()), "Customer with ID " + id);
         customer.setName(customerDetails.getName());
         customer.setEmail(customerDetails.getEmail());
         customer.setPhone(customerDetails.getPhone());
         customer.setBikeModel(customerDetails.getBikeModel());
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        indexAfterCommit(savedCustomer);
+        return savedCustomer;
     }
 
     public void deleteCustomer(Long id) {
         findCustomerOrThrow(id);
         customerRepository.deleteById(id);
+        AfterCommit.run(() -> suggestIndex.remove(id));
+    }
+
+    /**
+     * Autocomplete for the service desk: up to {@code limit} customers whose name, any word of their name, email
+     * or phone starts with {@code query}, ignoring case and phone punctuation.
+     */
+    public List<CustomerSuggestion> suggestCustomers(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (suggestIndex.isReady()) {
+            return suggestIndex.suggest(query, limit);
+        }
+        String key = LikePatterns.prefix(Customer.searchKey(query));
+        return customerRepository.findAllCustomersByNameOrEmailOrPhone(key, key, phonePattern(query),
+                PageRequest.of(0, limit)).map(CustomerSuggestion::from).getContent();
     }
     @Async
     public CompletableFuture<Page<Customer>> findAllCustomersByNameOrEmailOrPhone(String namePrefix, String emailPrefix, String phonePrefix, Pageable pageable) {
-    	Page<Customer> customers = customerRepository.findAllCustomersByNameOrEmailOrPhone(namePrefix, emailPrefix, phonePrefix, pageable);
+    	Page<Customer> customers = customerRepository.findAllCustomersByNameOrEmailOrPhone(
+    			LikePatterns.prefix(Customer.searchKey(namePrefix)), LikePatterns.prefix(Customer.searchKey(emailPrefix)),
+    			phonePattern(phonePrefix), pageable);
     	return CompletableFuture.completedFuture(customers);
     }
 
+    @Async
+    public CompletableFuture<Slice<Customer>> findCustomersByNameOrEmailOrPhoneAfter(String namePrefix, String emailPrefix,
+            String phonePrefix, PageCursor cursor, int size) {
+        List<Customer> customers = customerRepository.findAllCustomersByNameOrEmailOrPhoneAfter(
+                LikePatterns.prefix(Customer.searchKey(namePrefix)), LikePatterns.prefix(Customer.searchKey(emailPrefix)),
+                phonePattern(phonePrefix), cursor.createdAt(), cursor.id(), PageCursor.limit(size));
+        return CompletableFuture.completedFuture(PageCursor.slice(customers, size));
+    }
+
+    private void indexAfterCommit(Customer customer) {
+        CustomerSuggestion snapshot = CustomerSuggestion.from(customer);
+        // The version is bumped when the transaction flushes, so it is read once that has committed
+        AfterCommit.run(() -> index(snapshot, customer.getVersion()));
+    }
+
+    private void index(CustomerSuggestion customer, Long version) {
+        if (!suggestIndex.put(customer, version)) {
+            logger.warn("Customer suggest index outgrew its bound, serving suggestions from the database");
+        }
+    }
+
+    // A prefix without any digits would match every phone number, so it matches none instead
+    private String phonePattern(String phonePrefix) {
+        String digits = Customer.phoneSearchKey(phonePrefix);
+        return digits != null && !digits.isEmpty() ? LikePatterns.prefix(digits) : null;
+    }
+
     private Customer findCustomerOrThrow(Long id) {
         return customerRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Customer with ID " + id + " not found"));
@@ -0,0 +1,257 @@
+package com.tesla.bikeservices.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import com.tesla.bikeservices.dto.CustomerSuggestion;
+import com.tesla.bikeservices.entity.Customer;
+
+/**
+ * In-memory autocomplete over customer names, emails and phone numbers, so the service desk can look customers
+ * up on every keystroke without a query. Every search key (the normalized full name, each later word of the
+ * name, the email and the digits of the phone) is one entry in a sorted set, and a prefix lookup is a single
+ * ceiling seek followed by a walk over the matching entries. Like {@link SlotAvailabilityIndex} it only mirrors
+ * committed state and stays unready, with callers falling back to the database, when it could not be built or
+ * would grow beyond {@code maxCustomers}. Changes carry the customer's {@code @Version} and, as in the slot index,
+ * those no newer than the version already indexed are dropped.
+ */
+class CustomerSuggestIndex {
+
+    private static final Comparator<Entry> BY_KEY = Comparator.comparing(Entry::key).thenComparingLong(Entry::id);
+
+    private final int maxCustomers;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Replaced wholesale by rebuild, always under the write lock
+    private NavigableSet<Entry> entries = new TreeSet<>(BY_KEY);
+    private Map<Long, CustomerSuggestion> customersById = new HashMap<>();
+    // Latest version applied per customer; deleted customers keep a MAX_VALUE entry until the next rebuild
+    private Map<Long, Long> versionsById = new HashMap<>();
+    // Changes applied while a rebuild is loading, replayed onto the loaded contents before they are swapped in
+    private List<Consumer<CustomerSuggestIndex>> pendingChanges;
+    private volatile boolean ready;
+
+    CustomerSuggestIndex(int maxCustomers) {
+        this.maxCustomers = maxCustomers;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return customersById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the index through {@code loader}, which hands every customer to the consumer it is given, then
+     * checks the result against the repository count. Customers load into fresh structures without the lock;
+     * changes committed meanwhile are replayed onto them under the write lock before they are swapped in.
+     * Returns whether the index is ready.
+     */
+    synchronized boolean rebuild(Consumer<Consumer<Customer>> loader, LongSupplier totalCount) {
+        if (totalCount.getAsLong() > maxCustomers) {
+            lock.writeLock().lock();
+            try {
+                clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            CustomerSuggestIndex loaded = new CustomerSuggestIndex(maxCustomers);
+            loader.accept(customer -> loaded.applyPut(CustomerSuggestion.from(customer), customer.getVersion()));
+            long total = totalCount.getAsLong();
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(loaded));
+                entries = loaded.entries;
+                customersById = loaded.customersById;
+                versionsById = loaded.versionsById;
+                ready = customersById.size() <= maxCustomers && customersById.size() == total;
+                if (!ready) {
+                    clear();
+                }
+                return ready;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Returns false, and gives the memory back, once the index would outgrow its bound
+    boolean put(CustomerSuggestion customer, Long version) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(index -> index.applyPut(customer, version));
+            }
+            if (!ready) {
+                return true;
+            }
+            if (!applyPut(customer, version)) {
+                clear();
+                return false;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long customerId) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(index -> index.applyRemove(customerId));
+            }
+            if (ready) {
+                applyRemove(customerId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean applyPut(CustomerSuggestion customer, Long version) {
+        if (!recordVersion(customer.id(), version)) {
+            return true;
+        }
+        remove(customersById.get(customer.id()));
+        if (customersById.size() >= maxCustomers) {
+            return false;
+        }
+        add(customer);
+        return true;
+    }
+
+    private void applyRemove(Long customerId) {
+        versionsById.put(customerId, Long.MAX_VALUE);
+        remove(customersById.get(customerId));
+    }
+
+    // Records version as the customer's latest unless a newer one was applied already; null versions always apply
+    private boolean recordVersion(Long customerId, Long version) {
+        Long applied = versionsById.get(customerId);
+        if (version == null) {
+            return !Long.valueOf(Long.MAX_VALUE).equals(applied);
+        }
+        if (applied != null && applied >= version) {
+            return false;
+        }
+        versionsById.put(customerId, version);
+        return true;
+    }
+
+    /**
+     * Up to {@code limit} customers with a search key starting with the normalized query, in key order. A query
+     * holding digits is also matched against phone numbers with its punctuation dropped.
+     */
+    List<CustomerSuggestion> suggest(String query, int limit) {
+        String key = Customer.searchKey(query);
+        String digits = Customer.phoneSearchKey(query);
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new LinkedHashSet<>();
+            collect(key, ids, limit);
+            if (!digits.isEmpty() && !digits.equals(key)) {
+                collect(digits, ids, limit);
+            }
+            List<CustomerSuggestion> result = new ArrayList<>(ids.size());
+            ids.forEach(id -> result.add(customersById.get(id)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(String prefix, Set<Long> ids, int limit) {
+        for (Entry entry : entries.tailSet(new Entry(prefix, Long.MIN_VALUE), true)) {
+            if (ids.size() >= limit || !entry.key().startsWith(prefix)) {
+                return;
+            }
+            ids.add(entry.id());
+        }
+    }
+
+    private void add(CustomerSuggestion customer) {
+        customersById.put(customer.id(), customer);
+        keysOf(customer).forEach(key -> entries.add(new Entry(shared(key), customer.id())));
+    }
+
+    // Reuses the key instance of an existing entry, so common words like surnames are held once
+    private String shared(String key) {
+        Entry existing = entries.ceiling(new Entry(key, Long.MIN_VALUE));
+        return existing != null && existing.key().equals(key) ? existing.key() : key;
+    }
+
+    private void remove(CustomerSuggestion customer) {
+        if (customer == null) {
+            return;
+        }
+        customersById.remove(customer.id());
+        keysOf(customer).forEach(key -> entries.remove(new Entry(key, customer.id())));
+    }
+
+    private void clear() {
+        ready = false;
+        entries.clear();
+        customersById.clear();
+        versionsById.clear();
+    }
+
+    // "Jane van Dyke" is found from "jane", "van" and "dyke"
+    static Set<String> keysOf(CustomerSuggestion customer) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = Customer.searchKey(customer.name());
+        if (name != null && !name.isEmpty()) {
+            keys.add(name);
+            for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                if (i + 1 < name.length() && name.charAt(i + 1) != ' ') {
+                    keys.add(name.substring(i + 1));
+                }
+            }
+        }
+        String email = Customer.searchKey(customer.email());
+        if (email != null && !email.isEmpty()) {
+            keys.add(email);
+        }
+        String phone = Customer.phoneSearchKey(customer.phone());
+        if (phone != null && !phone.isEmpty()) {
+            keys.add(phone);
+        }
+        return keys;
+    }
+
+    private record Entry(String key, long id) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.tesla.bikeservices.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.dto.BookingSummary;
+import com.tesla.bikeservices.dto.ExportFormat;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams whole tables as NDJSON or CSV. Rows come from forward-only repository streams inside a read-only
+ * transaction and are written out in chunks, with the persistence context cleared after each chunk, so memory
+ * stays flat however large the table is. In partitioned mode the ID range is split into contiguous sub-ranges
+ * exported in parallel, each in its own transaction; chunks from different partitions interleave in the output,
+ * but every line stays whole.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LogManager.getLogger(ExportService.class);
+    // Matches the fetch size hint on the repository stream queries
+    private static final int CHUNK_SIZE = 500;
+
+    private static final List<String> BOOKING_COLUMNS = List.of("id", "status", "priority", "technician", "notes",
+            "actualStartTime", "actualEndTime", "createdAt", "customerId", "customerName", "customerEmail",
+            "serviceTypeId", "serviceTypeName", "appointmentSlotId", "slotTechnician", "slotStartTime", "slotEndTime",
+            "sparePartIds");
+    private static final List<String> CUSTOMER_COLUMNS = List.of("id", "name", "email", "phone", "bikeModel", "createdAt");
+
+    private final ServiceBookingRepository serviceBookingRepository;
+    private final CustomerRepository customerRepository;
+    private final ServiceBookingService serviceBookingService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int maxPartitions;
+    private final ExecutorService partitionPool;
+
+    public ExportService(ServiceBookingRepository serviceBookingRepository,
+                         CustomerRepository customerRepository,
+                         ServiceBookingService serviceBookingService,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${export.max-partitions:0}") int maxPartitions) {
+        this.serviceBookingRepository = serviceBookingRepository;
+        this.customerRepository = customerRepository;
+        this.serviceBookingService = serviceBookingService;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.maxPartitions = maxPartitions > 0 ? maxPartitions : Runtime.getRuntime().availableProcessors();
+        this.partitionPool = Executors.newFixedThreadPool(this.maxPartitions, runnable -> {
+            Thread thread = new Thread(runnable, "export-partition");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Checked before the response starts streaming, so a bad value still gets a proper 400
+    public void validatePartitions(int partitions) {
+        if (partitions < 1 || partitions > maxPartitions) {
+            throw new IllegalArgumentException("Partitions must be between 1 and " + maxPartitions);
+        }
+    }
+
+    public void exportBookings(ExportFormat format, int partitions, OutputStream out) {
+        export("bookings", format, partitions, out, BOOKING_COLUMNS,
+                serviceBookingRepository::findMinId, serviceBookingRepository::findMaxId,
+                serviceBookingRepository::streamSummaries, serviceBookingService::withSparePartIds, this::bookingRow);
+    }
+
+    public void exportCustomers(ExportFormat format, int partitions, OutputStream out) {
+        export("customers", format, partitions, out, CUSTOMER_COLUMNS,
+                customerRepository::findMinId, customerRepository::findMaxId,
+                customerRepository::streamByIdBetweenOrderById, UnaryOperator.identity(), this::customerRow);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitionPool.shutdownNow();
+    }
+
+    private <T> void export(String table, ExportFormat format, int partitions, OutputStream out, List<String> columns,
+                            Supplier<Optional<Long>> minId, Supplier<Optional<Long>> maxId,
+                            BiFunction<Long, Long, Stream<T>> query, UnaryOperator<List<T>> enrich,
+                            Function<T, List<Object>> csvRow) {
+        validatePartitions(partitions);
+        long startedAt = System.nanoTime();
+        if (format == ExportFormat.CSV) {
+            write(out, csvLine(new ArrayList<>(columns)).getBytes(StandardCharsets.UTF_8));
+        }
+        Optional<Long> from = minId.get();
+        Optional<Long> to = maxId.get();
+        if (from.isEmpty() || to.isEmpty()) {
+            return;
+        }
+
+        ChunkExporter<T> exporter = new ChunkExporter<>(format, out, query, enrich, csvRow);
+        if (partitions == 1) {
+            exporter.exportRange(from.get(), to.get());
+        } else {
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            for (long[] range : split(from.get(), to.get(), partitions)) {
+                running.add(CompletableFuture.runAsync(() -> exporter.exportRange(range[0], range[1]), partitionPool));
+            }
+            try {
+                CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException e) {
+                running.forEach(partition -> partition.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        logger.info("Exported {} rows of {} as {} in {} ms using {} partitions", exporter.rowCount(), table, format,
+                (System.nanoTime() - startedAt) / 1_000_000, partitions);
+    }
+
+    // Contiguous, inclusive ID ranges covering [from, to]; fewer than requested when the range is small
+    static List<long[]> split(long from, long to, int partitions) {
+        long width = Math.max(1, (to - from + partitions) / partitions);
+        List<long[]> ranges = new ArrayList<>();
+        for (long start = from; start <= to; start += width) {
+            ranges.add(new long[] {start, Math.min(to, start + width - 1)});
+            if (start > Long.MAX_VALUE - width) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    private List<Object> bookingRow(BookingSummary booking) {
+        List<Object> row = new ArrayList<>(BOOKING_COLUMNS.size());
+        row.add(booking.id());
+        row.add(booking.status());
+        row.add(booking.priority());
+        row.add(booking.technician());
+        row.add(booking.notes());
+        row.add(booking.actualStartTime());
+        row.add(booking.actualEndTime());
+        row.add(booking.createdAt());
+        row.add(booking.customer() != null ? booking.customer().id() : null);
+        row.add(booking.customer() != null ? booking.customer().name() : null);
+        row.add(booking.customer() != null ? booking.customer().email() : null);
+        row.add(booking.serviceType() != null ? booking.serviceType().id() : null);
+        row.add(booking.serviceType() != null ? booking.serviceType().name() : null);
+        row.add(booking.appointmentSlot() != null ? booking.appointmentSlot().id() : null);
+        row.add(booking.appointmentSlot() != null ? booking.appointmentSlot().technician() : null);
+        row.add(booking.appointmentSlot() != null ? booking.appointmentSlot().startTime() : null);
+        row.add(booking.appointmentSlot() != null ? booking.appointmentSlot().endTime() : null);
+        row.add(booking.sparePartIds().stream().map(String::valueOf).collect(Collectors.joining(" ")));
+        return row;
+    }
+
+    private List<Object> customerRow(Customer customer) {
+        List<Object> row = new ArrayList<>(CUSTOMER_COLUMNS.size());
+        row.add(customer.getId());
+        row.add(customer.getName());
+        row.add(customer.getEmail());
+        row.add(customer.getPhone());
+        row.add(customer.getBikeModel());
+        row.add(customer.getCreatedAt());
+        return row;
+    }
+
+    // RFC 4180 quoting: fields holding a separator, quote or line break are quoted with inner quotes doubled
+    static String csvLine(List<Object> values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = Objects.toString(values.get(i), "");
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.append("\r\n").toString();
+    }
+
+    // Partitions share the response stream, so each chunk goes out whole under its monitor
+    private static void write(OutputStream out, byte[] bytes) {
+        synchronized (out) {
+            try {
+                out.write(bytes);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Export aborted, the client stopped reading", e);
+            }
+        }
+    }
+
+    private final class ChunkExporter<T> {
+
+        private final ExportFormat format;
+        private final OutputStream out;
+        private final BiFunction<Long, Long, Stream<T>> query;
+        private final UnaryOperator<List<T>> enrich;
+        private final Function<T, List<Object>> csvRow;
+        private long rows;
+
+        ChunkExporter(ExportFormat format, OutputStream out, BiFunction<Long, Long, Stream<T>> query,
+                      UnaryOperator<List<T>> enrich, Function<T, List<Object>> csvRow) {
+            this.format = format;
+            this.out = out;
+            this.query = query;
+            this.enrich = enrich;
+            this.csvRow = csvRow;
+        }
+
+        void exportRange(long fromId, long toId) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> stream = query.apply(fromId, toId)) {
+                    List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        chunk.add(iterator.next());
+                        if (chunk.size() == CHUNK_SIZE) {
+                            flush(chunk);
+                        }
+                    }
+                    flush(chunk);
+                }
+            });
+        }
+
+        synchronized long rowCount() {
+            return rows;
+        }
+
+        private void flush(List<T> chunk) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunk.size() * 256);
+            for (T row : enrich.apply(chunk)) {
+                byte[] line = format == ExportFormat.CSV
+                        ? csvLine(csvRow.apply(row)).getBytes(StandardCharsets.UTF_8)
+                        : ndjsonLine(row);
+                buffer.writeBytes(line);
+            }
+            write(out, buffer.toByteArray());
+            synchronized (this) {
+                rows += chunk.size();
+            }
+            chunk.clear();
+            // Rows already written must not pile up in the persistence context
+            entityManager.clear();
+        }
+
+        private byte[] ndjsonLine(T row) {
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(row);
+                byte[] line = new byte[json.length + 1];
+                System.arraycopy(json, 0, line, 0, json.length);
+                line[json.length] = '\n';
+                return line;
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize export row", e);
+            }
+        }
+    }
+}
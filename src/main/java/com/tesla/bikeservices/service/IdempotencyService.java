@@ -0,0 +1,257 @@
+package com.tesla.bikeservices.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.entity.IdempotencyRecord;
+import com.tesla.bikeservices.repository.IdempotencyRecordRepository;
+import com.tesla.bikeservices.response.ApiResponse;
+
+/**
+ * Makes POST endpoints safe to retry. The first request carrying an Idempotency-Key runs normally and its
+ * response is recorded; later requests with the same key get the recorded response back without reaching
+ * the service layer, and duplicates arriving while the first one is still running wait for its outcome.
+ * Recent responses live in a bounded LRU map, backed by the idempotency_record table so replays survive
+ * restarts and eviction. Failed executions are not recorded, so a retry after an error runs again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LogManager.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    // Access-ordered, so the eldest entry is the least recently used one; guarded by its own monitor
+    private final Map<String, StoredResponse> recentResponses;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.recentResponses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} once per key within {@code scope}. {@code request} should hold the fields that identify
+     * the request; reusing a key with a different request is rejected. Without a key the action simply runs.
+     */
+    public <T> ResponseEntity<ApiResponse<T>> execute(String key, String scope, Object request,
+                                                      Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        try {
+            return executeAsync(key, scope, request, () -> CompletableFuture.completedFuture(action.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<ResponseEntity<ApiResponse<T>>> executeAsync(String key, String scope, Object request,
+                                                                              Supplier<CompletableFuture<ResponseEntity<ApiResponse<T>>>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String recordKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        StoredResponse stored = findRecent(recordKey);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(replay(stored, fingerprint));
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        InFlight running = inFlight.putIfAbsent(recordKey, new InFlight(fingerprint, execution));
+        if (running != null) {
+            logger.info("Waiting on in-flight request for idempotency key {}", recordKey);
+            requireSameRequest(running.fingerprint(), fingerprint);
+            return running.execution().thenApply(response -> replay(response, fingerprint));
+        }
+
+        try {
+            // The previous owner may have finished between the lookup above and registering this execution
+            stored = findStored(recordKey);
+            if (stored != null) {
+                execution.complete(stored);
+                inFlight.remove(recordKey);
+                return CompletableFuture.completedFuture(replay(stored, fingerprint));
+            }
+            return action.get().whenComplete((response, failure) -> {
+                try {
+                    if (failure != null) {
+                        execution.completeExceptionally(failure);
+                    } else {
+                        execution.complete(record(recordKey, fingerprint, response));
+                    }
+                } catch (RuntimeException e) {
+                    execution.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(recordKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            inFlight.remove(recordKey);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT1H}",
+               initialDelayString = "${idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (recentResponses) {
+            recentResponses.values().removeIf(stored -> stored.isExpired(now));
+        }
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        logger.info("Purged {} expired idempotency records", purged);
+    }
+
+    private StoredResponse findRecent(String recordKey) {
+        synchronized (recentResponses) {
+            StoredResponse stored = recentResponses.get(recordKey);
+            if (stored != null && stored.isExpired(LocalDateTime.now())) {
+                recentResponses.remove(recordKey);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private StoredResponse findStored(String recordKey) {
+        StoredResponse stored = findRecent(recordKey);
+        if (stored != null) {
+            return stored;
+        }
+        return idempotencyRecordRepository.findById(recordKey)
+                .map(record -> new StoredResponse(record.getRequestFingerprint(), record.getStatusCode(),
+                        record.getResponseBody(), record.getExpiresAt()))
+                .filter(persisted -> !persisted.isExpired(LocalDateTime.now()))
+                .map(persisted -> {
+                    remember(recordKey, persisted);
+                    return persisted;
+                })
+                .orElse(null);
+    }
+
+    private StoredResponse record(String recordKey, String fingerprint, ResponseEntity<?> response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not record response for idempotency key " + recordKey, e);
+        }
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(), body,
+                LocalDateTime.now().plus(ttl));
+        remember(recordKey, stored);
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(recordKey);
+        record.setRequestFingerprint(fingerprint);
+        record.setStatusCode(stored.statusCode());
+        record.setResponseBody(body);
+        record.setExpiresAt(stored.expiresAt());
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Idempotency key {} was recorded concurrently by another instance", recordKey);
+        } catch (RuntimeException e) {
+            // The request itself succeeded; losing the persistent copy only narrows replay to this instance's memory
+            logger.error("Failed to persist idempotency record {}: {}", recordKey, e.getMessage());
+        }
+        return stored;
+    }
+
+    private void remember(String recordKey, StoredResponse stored) {
+        synchronized (recentResponses) {
+            recentResponses.put(recordKey, stored);
+        }
+    }
+
+    // Rebuilds the recorded ApiResponse; data is replayed as the JSON tree it was serialized to
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ApiResponse<T>> replay(StoredResponse stored, String fingerprint) {
+        requireSameRequest(stored.fingerprint(), fingerprint);
+        try {
+            JsonNode body = objectMapper.readTree(stored.body());
+            Map<String, String> errors = body.hasNonNull("errors")
+                    ? objectMapper.convertValue(body.get("errors"), new TypeReference<Map<String, String>>() {})
+                    : null;
+            ApiResponse<T> response = new ApiResponse<>(body.path("status").asText(null), body.path("message").asText(null),
+                    (T) body.get("data"), errors, null);
+            if (body.hasNonNull("timestamp")) {
+                response.setTimestamp(objectMapper.treeToValue(body.get("timestamp"), LocalDateTime.class));
+            }
+            return ResponseEntity.status(stored.statusCode())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Recorded response for this " + HEADER + " is unreadable", e);
+        }
+    }
+
+    private void requireSameRequest(String recordedFingerprint, String fingerprint) {
+        if (!recordedFingerprint.equals(fingerprint)) {
+            throw new IllegalStateException(HEADER + " was already used for a different request");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private record StoredResponse(String fingerprint, int statusCode, String body, LocalDateTime expiresAt) {
+        boolean isExpired(LocalDateTime now) {
+            return expiresAt.isBefore(now);
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<StoredResponse> execution) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.tesla.bikeservices.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs a write in its own transaction and re-runs it when it loses an optimistic lock race. Every attempt is a
+ * fresh transaction, and the rolled-back attempt leaves the persistence context cleared, so the retry re-reads
+ * current rows. Backoff is exponential with full jitter so colliding writers spread out instead of colliding
+ * again. Counts conflicts, retries and exhausted attempts per operation. Inside an existing transaction there is
+ * nothing to retry in, so the write runs once and a conflict propagates to whoever owns that transaction.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LogManager.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${booking.retry.max-attempts:4}") int maxAttempts,
+                               @Value("${booking.retry.base-backoff-ms:10}") long baseBackoffMillis,
+                               @Value("${booking.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("booking.optimistic.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("booking.optimistic.exhausted", "operation", operation).increment();
+                    logger.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                meterRegistry.counter("booking.optimistic.retries", "operation", operation).increment();
+                logger.info("{} hit an optimistic lock conflict, retrying (attempt {} of {})", operation, attempt + 1, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable write) {
+        execute(operation, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off before a retry", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tesla.bikeservices.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import com.tesla.bikeservices.dto.RosterResult;
+import com.tesla.bikeservices.dto.RosterTemplateDTO;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+
+/**
+ * Expands weekly roster templates into appointment slots server-side. Each technician's slots are validated
+ * and inserted by {@link AppointmentSlotService#createSlots} in a transaction of their own, so one
+ * technician's clash-free slots are kept even when another technician's batch fails.
+ */
+@Service
+public class RosterService {
+
+    private static final Logger logger = LogManager.getLogger(RosterService.class);
+    private static final int MAX_ROSTER_DAYS = 366;
+
+    private final AppointmentSlotService appointmentSlotService;
+
+    public RosterService(AppointmentSlotService appointmentSlotService) {
+        this.appointmentSlotService = appointmentSlotService;
+    }
+
+    public RosterResult generateSlots(RosterTemplateDTO template) {
+        validate(template);
+        logger.info("Generating roster slots for {} technicians from {} to {}",
+                template.getTechnicians().size(), template.getFromDate(), template.getToDate());
+
+        int created = 0;
+        int skipped = 0;
+        Map<String, Integer> createdByTechnician = new LinkedHashMap<>();
+        for (String technician : template.getTechnicians().stream().map(String::trim).distinct().toList()) {
+            List<AppointmentSlot> candidates = expand(template, technician);
+            int saved = appointmentSlotService.createSlots(technician, candidates).size();
+            created += saved;
+            skipped += candidates.size() - saved;
+            createdByTechnician.put(technician, saved);
+        }
+        logger.info("Roster generated {} slots, skipped {} clashing slots", created, skipped);
+        return new RosterResult(created, skipped, createdByTechnician);
+    }
+
+    private List<AppointmentSlot> expand(RosterTemplateDTO template, String technician) {
+        List<AppointmentSlot> slots = new ArrayList<>();
+        for (LocalDate date = template.getFromDate(); !date.isAfter(template.getToDate()); date = date.plusDays(1)) {
+            if (!template.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime dayEnd = date.atTime(template.getDayEnd());
+            for (LocalDateTime start = date.atTime(template.getDayStart());
+                    !start.plusMinutes(template.getSlotMinutes()).isAfter(dayEnd);
+                    start = start.plusMinutes(template.getSlotMinutes())) {
+                AppointmentSlot slot = new AppointmentSlot();
+                slot.setTechnician(technician);
+                slot.setStartTime(start);
+                slot.setEndTime(start.plusMinutes(template.getSlotMinutes()));
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    private void validate(RosterTemplateDTO template) {
+        if (!template.getDayStart().isBefore(template.getDayEnd())) {
+            throw new IllegalArgumentException("Day start time must be before day end time");
+        }
+        if (template.getFromDate().isAfter(template.getToDate())) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(template.getFromDate(), template.getToDate()) >= MAX_ROSTER_DAYS) {
+            throw new IllegalArgumentException("Roster cannot span more than " + MAX_ROSTER_DAYS + " days");
+        }
+        if (template.getTechnicians().stream().anyMatch(technician -> technician == null || technician.isBlank())) {
+            throw new IllegalArgumentException("Technician is mandatory");
+        }
+    }
+}
@@ -1,78 +1,89 @@
 package com.tesla.bikeservices.service;
 
+import com.tesla.bikeservices.dto.BookingBatchResult;
+import com.tesla.bikeservices.dto.BookingSearchHit;
+import com.tesla.bikeservices.dto.BookingSummary;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.dto.ServiceBookingDTO;
 import com.tesla.bikeservices.entity.AppointmentSlot;
-import com.tesla.bikeservices.entity.Customer;
 import com.tesla.bikeservices.entity.ServiceBooking;
-import com.tesla.bikeservices.entity.ServiceType;
 import com.tesla.bikeservices.entity.SparePart;
-import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.exception.BookingConflictException;
+import com.tesla.bikeservices.repository.BookingSpecifications;
 import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.FieldSelection;
 import com.tesla.bikeservices.repository.ServiceBookingRepository;
-import com.tesla.bikeservices.repository.ServiceTypeRepository;
-import com.tesla.bikeservices.repository.SparePartRepository;
+import com.tesla.bikeservices.response.EntityTags;
 import jakarta.persistence.EntityNotFoundException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ServiceBookingService {
 
     private static final Logger logger = LogManager.getLogger(ServiceBookingService.class);
+    private static final int MAX_BATCH_SIZE = 1000;
     private final ServiceBookingRepository serviceBookingRepository;
     private final CustomerRepository customerRepository;
-    private final ServiceTypeRepository serviceTypeRepository;
-    private final SparePartRepository sparePartRepository;
-    private final AppointmentSlotRepository appointmentSlotRepository;
+    private final ServiceTypeService serviceTypeService;
+    private final SparePartService sparePartService;
+    private final AppointmentSlotService appointmentSlotService;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final BookingSearchService bookingSearchService;
 
     public ServiceBookingService(
             ServiceBookingRepository serviceBookingRepository,
             CustomerRepository customerRepository,
-            ServiceTypeRepository serviceTypeRepository,
-            SparePartRepository sparePartRepository,
-            AppointmentSlotRepository appointmentSlotRepository) {
+            ServiceTypeService serviceTypeService,
+            SparePartService sparePartService,
+            AppointmentSlotService appointmentSlotService,
+            OptimisticLockRetry optimisticLockRetry,
+            BookingSearchService bookingSearchService) {
         this.serviceBookingRepository = serviceBookingRepository;
         this.customerRepository = customerRepository;
-        this.serviceTypeRepository = serviceTypeRepository;
-        this.sparePartRepository = sparePartRepository;
-        this.appointmentSlotRepository = appointmentSlotRepository;
+        this.serviceTypeService = serviceTypeService;
+        this.sparePartService = sparePartService;
+        this.appointmentSlotService = appointmentSlotService;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.bookingSearchService = bookingSearchService;
     }
 
     @Transactional
     public ServiceBooking createBooking(ServiceBookingDTO bookingDTO) {
         logger.info("Creating booking for customer ID: {}", bookingDTO.getCustomerId());
 
-        Customer customer = customerRepository.findById(bookingDTO.getCustomerId())
-                .orElseThrow(() -> new EntityNotFoundException("Customer with ID " + bookingDTO.getCustomerId() + " not found"));
-
-        ServiceType serviceType = serviceTypeRepository.findById(bookingDTO.getServiceTypeId())
-                .orElseThrow(() -> new EntityNotFoundException("Service type with ID " + bookingDTO.getServiceTypeId() + " not found"));
-
-        AppointmentSlot appointmentSlot = appointmentSlotRepository.findById(bookingDTO.getAppointmentSlotId())
-                .orElseThrow(() -> new EntityNotFoundException("Appointment slot with ID " + bookingDTO.getAppointmentSlotId() + " not found"));
-
-        if (!appointmentSlot.isAvailable()) {
-            throw new IllegalStateException("Selected appointment slot is not available");
-        }
-
-        List<SparePart> spareParts = bookingDTO.getSparePartIds() != null
-                ? sparePartRepository.findAllById(bookingDTO.getSparePartIds())
-                : List.of();
-        for (SparePart part : spareParts) {
-            if (part.getQuantity() <= 0) {
-                throw new IllegalStateException("Spare part out of stock: " + part.getPartName());
-            }
-        }
+        AppointmentSlot appointmentSlot = appointmentSlotService.claimSlot(bookingDTO.getAppointmentSlotId());
+        List<SparePart> spareParts = sparePartService.reserveParts(bookingDTO.getSparePartIds());
 
         ServiceBooking booking = new ServiceBooking();
-        booking.setCustomer(customer);
-        booking.setServiceType(serviceType);
+        booking.setCustomer(customerRepository.getReferenceById(bookingDTO.getCustomerId()));
+        booking.setServiceType(serviceTypeService.getReference(bookingDTO.getServiceTypeId()));
         booking.setAppointmentSlot(appointmentSlot);
         booking.setStatus(bookingDTO.getStatus());
         booking.setPriority(bookingDTO.getPriority());
@@ -80,15 +91,77 @@ public class ServiceBookingService {
         booking.setSpareParts(spareParts);
         booking.setNotes(bookingDTO.getNotes());
 
-        appointmentSlot.setAvailable(false);
-        appointmentSlotRepository.save(appointmentSlot);
+        return saveBooking(booking, bookingDTO);
+    }
+
+    /**
+     * Creates many bookings in one transaction. All referenced IDs are resolved up front with one IN query per
+     * entity type, slots and parts are locked in ID order, and the inserts and stock/slot updates are flushed
+     * through JDBC batching. Items that fail validation are reported per index and do not stop the rest.
+     */
+    @Transactional
+    public List<BookingBatchResult> createBookings(List<ServiceBookingDTO> bookingDTOs) {
+        if (bookingDTOs == null || bookingDTOs.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one booking");
+        }
+        if (bookingDTOs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_SIZE + " bookings");
+        }
+        logger.info("Creating {} bookings in batch", bookingDTOs.size());
+
+        Set<Long> customerIds = collectIds(bookingDTOs, ServiceBookingDTO::getCustomerId);
+        Set<Long> serviceTypeIds = collectIds(bookingDTOs, ServiceBookingDTO::getServiceTypeId);
+        Set<Long> slotIds = collectIds(bookingDTOs, ServiceBookingDTO::getAppointmentSlotId);
+        Set<Long> partIds = bookingDTOs.stream()
+                .filter(Objects::nonNull)
+                .filter(dto -> dto.getSparePartIds() != null)
+                .flatMap(dto -> dto.getSparePartIds().stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Set<Long> existingCustomers = customerIds.isEmpty() ? Set.of() : customerRepository.findExistingIds(customerIds);
+        Set<Long> existingServiceTypes = serviceTypeIds.isEmpty() ? Set.of() : serviceTypeService.findExistingIds(serviceTypeIds);
+        Map<Long, AppointmentSlot> slots = appointmentSlotService.lockSlots(slotIds);
+        Map<Long, SparePart> parts = sparePartService.lockParts(partIds);
+
+        BookingBatchResult[] results = new BookingBatchResult[bookingDTOs.size()];
+        List<ServiceBooking> bookings = new ArrayList<>();
+        List<Integer> bookingIndexes = new ArrayList<>();
+        for (int i = 0; i < bookingDTOs.size(); i++) {
+            ServiceBookingDTO dto = bookingDTOs.get(i);
+            String error = validateBatchItem(dto, existingCustomers, existingServiceTypes, slots, parts);
+            if (error != null) {
+                results[i] = BookingBatchResult.error(i, error);
+                continue;
+            }
 
-        for (SparePart part : spareParts) {
-            part.setQuantity(part.getQuantity() - 1);
-            sparePartRepository.save(part);
+            // Slots and parts are locked and managed, so these in-memory changes are flushed as batched UPDATEs
+            AppointmentSlot slot = slots.get(dto.getAppointmentSlotId());
+            appointmentSlotService.markBooked(slot);
+            List<SparePart> bookedParts = distinctParts(dto, parts);
+            bookedParts.forEach(part -> part.setQuantity(part.getQuantity() - 1));
+
+            ServiceBooking booking = new ServiceBooking();
+            booking.setCustomer(customerRepository.getReferenceById(dto.getCustomerId()));
+            booking.setServiceType(serviceTypeService.getReference(dto.getServiceTypeId()));
+            booking.setAppointmentSlot(slot);
+            booking.setStatus(dto.getStatus());
+            booking.setPriority(dto.getPriority());
+            booking.setTechnician(dto.getTechnician());
+            booking.setSpareParts(bookedParts);
+            booking.setNotes(dto.getNotes());
+            bookings.add(booking);
+            bookingIndexes.add(i);
         }
 
-        return serviceBookingRepository.save(booking);
+        List<ServiceBooking> saved = serviceBookingRepository.saveAll(bookings);
+        bookingSearchService.indexAfterCommit(saved.stream().map(ServiceBooking::getId).toList());
+        for (int j = 0; j < saved.size(); j++) {
+            int index = bookingIndexes.get(j);
+            results[index] = BookingBatchResult.success(index, saved.get(j).getId());
+        }
+        logger.info("Batch created {} of {} bookings", saved.size(), bookingDTOs.size());
+        return List.of(results);
     }
 
     public ServiceBooking getBooking(Long id) {
@@ -96,104 +169,335 @@ public class ServiceBookingService {
         return findBookingOrThrow(id);
     }
 
-    public Page<ServiceBooking> getAllBookings(Pageable pageable) {
+    // The booking's ETag from a versions-only query, so an unchanged booking is never loaded
+    public String getBookingTag(Long id) {
+        List<ServiceBookingRepository.VersionRow> rows = serviceBookingRepository.findVersionRowsById(id);
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("Booking with ID " + id + " not found");
+        }
+        ServiceBookingRepository.VersionRow row = rows.get(0);
+        return bookingTag(row.getBookingVersion(), row.getCustomerVersion(), row.getServiceTypeVersion(),
+                row.getSlotVersion(), rows.stream().map(ServiceBookingRepository.VersionRow::getSparePartVersion)
+                        .filter(Objects::nonNull));
+    }
+
+    public String tagOf(ServiceBooking booking) {
+        return bookingTag(booking.getVersion(),
+                booking.getCustomer() != null ? booking.getCustomer().getVersion() : null,
+                booking.getServiceType() != null ? booking.getServiceType().getVersion() : null,
+                booking.getAppointmentSlot() != null ? booking.getAppointmentSlot().getVersion() : null,
+                booking.getSpareParts().stream().sorted(Comparator.comparing(SparePart::getId)).map(SparePart::getVersion));
+    }
+
+    public Page<BookingSummary> getAllBookings(Pageable pageable) {
         logger.debug("Fetching all bookings with pagination: page={}, size={}", pageable.getPageNumber(), pageable.getPageSize());
-        return serviceBookingRepository.findAll(pageable);
+        return withSparePartIds(serviceBookingRepository.findSummaries(pageable));
     }
 
-    public List<ServiceBooking> getBookingsByCustomer(Long customerId) {
+    public Slice<BookingSummary> getBookingsAfter(PageCursor cursor, int size) {
+        logger.debug("Fetching bookings after cursor: createdAt={}, id={}", cursor.createdAt(), cursor.id());
+        List<BookingSummary> bookings = serviceBookingRepository.findSummariesAfter(cursor.createdAt(), cursor.id(),
+                PageCursor.limit(size));
+        return withSparePartIds(PageCursor.slice(bookings, size));
+    }
+
+    public List<BookingSummary> getBookingsByCustomer(Long customerId) {
         logger.debug("Fetching bookings for customer ID: {}", customerId);
-        return serviceBookingRepository.findByCustomerId(customerId);
+        return withSparePartIds(serviceBookingRepository.findSummariesByCustomerId(customerId));
     }
 
-    public List<ServiceBooking> getBookingsByStatus(String status) {
+    public List<BookingSummary> getBookingsByStatus(String status) {
         logger.debug("Fetching bookings with status: {}", status);
         
-        return serviceBookingRepository.findByStatus(status);
+        return withSparePartIds(serviceBookingRepository.findSummariesByStatus(status));
     }
 
-    @Transactional
     public ServiceBooking updateBooking(Long id, ServiceBookingDTO bookingDTO) {
-        logger.info("Updating booking with ID: {}", id);
-        ServiceBooking booking = findBookingOrThrow(id);
-
-        Customer customer = customerRepository.findById(bookingDTO.getCustomerId())
-                .orElseThrow(() -> new EntityNotFoundException("Customer with ID " + bookingDTO.getCustomerId() + " not found"));
-
-        ServiceType serviceType = serviceTypeRepository.findById(bookingDTO.getServiceTypeId())
-                .orElseThrow(() -> new EntityNotFoundException("Service type with ID " + bookingDTO.getServiceTypeId() + " not found"));
-
-        AppointmentSlot newSlot = appointmentSlotRepository.findById(bookingDTO.getAppointmentSlotId())
-                .orElseThrow(() -> new EntityNotFoundException("Appointment slot with ID " + bookingDTO.getAppointmentSlotId() + " not found"));
+        return updateBooking(id, bookingDTO, null);
+    }
 
-        if (!newSlot.isAvailable()) {
-            throw new IllegalStateException("Selected appointment slot is not available");
+    // Each attempt runs in a fresh transaction and re-checks ifMatch, the client's If-Match header; see OptimisticLockRetry
+    public ServiceBooking updateBooking(Long id, ServiceBookingDTO bookingDTO, String ifMatch) {
+        try {
+            return optimisticLockRetry.execute("updateBooking", () -> applyUpdate(id, bookingDTO, ifMatch));
+        } catch (OptimisticLockingFailureException e) {
+            throw conflict(id, e);
         }
+    }
 
-        List<SparePart> spareParts = bookingDTO.getSparePartIds() != null
-                ? sparePartRepository.findAllById(bookingDTO.getSparePartIds())
-                : List.of();
-        for (SparePart part : spareParts) {
-            if (part.getQuantity() <= 0) {
-                throw new IllegalStateException("Spare part out of stock: " + part.getPartName());
-            }
+    public void deleteBooking(Long id) {
+        try {
+            optimisticLockRetry.run("deleteBooking", () -> applyDelete(id));
+        } catch (OptimisticLockingFailureException e) {
+            throw conflict(id, e);
         }
+    }
 
-        // Revert stock and availability for old entities
-        AppointmentSlot oldSlot = booking.getAppointmentSlot();
-        if (oldSlot != null && !oldSlot.getId().equals(newSlot.getId())) {
-            oldSlot.setAvailable(true);
-            appointmentSlotRepository.save(oldSlot);
+    private ServiceBooking applyUpdate(Long id, ServiceBookingDTO bookingDTO, String ifMatch) {
+        logger.info("Updating booking with ID: {}", id);
+        ServiceBooking booking = findBookingOrThrow(id);
+        EntityTags.requireMatch(ifMatch, tagOf(booking), "Booking with ID " + id);
+
+        // Move the booking to the new slot only when it actually changes. Slot and stock changes are conditional
+        // bulk updates that clear the persistence context, so the booking is re-read once they are done
+        Long oldSlotId = booking.getAppointmentSlot() != null ? booking.getAppointmentSlot().getId() : null;
+        Long newSlotId = bookingDTO.getAppointmentSlotId();
+        List<Long> oldPartIds = booking.getSpareParts().stream().map(SparePart::getId).toList();
+        if (!newSlotId.equals(oldSlotId)) {
+            appointmentSlotService.claimSlot(newSlotId);
+            if (oldSlotId != null) {
+                appointmentSlotService.releaseSlot(oldSlotId);
+            }
         }
 
-        for (SparePart oldPart : booking.getSpareParts()) {
-            oldPart.setQuantity(oldPart.getQuantity() + 1);
-            sparePartRepository.save(oldPart);
-        }
+        List<SparePart> spareParts = sparePartService.exchangeParts(oldPartIds, bookingDTO.getSparePartIds());
+        booking = findBookingOrThrow(id);
 
         // Update booking
-        booking.setCustomer(customer);
-        booking.setServiceType(serviceType);
-        booking.setAppointmentSlot(newSlot);
+        booking.setCustomer(customerRepository.getReferenceById(bookingDTO.getCustomerId()));
+        booking.setServiceType(serviceTypeService.getReference(bookingDTO.getServiceTypeId()));
+        booking.setAppointmentSlot(appointmentSlotService.getReference(newSlotId));
         booking.setStatus(bookingDTO.getStatus());
         booking.setPriority(bookingDTO.getPriority());
         booking.setTechnician(bookingDTO.getTechnician());
         booking.setSpareParts(spareParts);
         booking.setNotes(bookingDTO.getNotes());
 
-        newSlot.setAvailable(false);
-        appointmentSlotRepository.save(newSlot);
-
-        for (SparePart part : spareParts) {
-            part.setQuantity(part.getQuantity() - 1);
-            sparePartRepository.save(part);
-        }
-
-        return serviceBookingRepository.save(booking);
+        return saveBooking(booking, bookingDTO);
     }
 
-    @Transactional
-    public void deleteBooking(Long id) {
+    private void applyDelete(Long id) {
         logger.info("Deleting booking with ID: {}", id);
         ServiceBooking booking = findBookingOrThrow(id);
 
+        List<Long> partIds = booking.getSpareParts().stream().map(SparePart::getId).toList();
         AppointmentSlot slot = booking.getAppointmentSlot();
+        serviceBookingRepository.delete(booking);
+        bookingSearchService.indexAfterCommit(List.of(id));
+        sparePartService.releaseParts(partIds);
         if (slot != null) {
-            slot.setAvailable(true);
-            appointmentSlotRepository.save(slot);
+            appointmentSlotService.releaseSlot(slot.getId());
+        }
+    }
+
+    public Page<BookingSummary> searchBookingsByCriteria(String status, String technicianPrefix, String customerPrefix, Pageable pageable) {
+        logger.debug("Searching bookings with status={}, technicianPrefix={}, customerPrefix={}", status, technicianPrefix, customerPrefix);
+        // Only the supplied criteria are applied, ANDed
+        return withSparePartIds(serviceBookingRepository.searchSummaries(
+                BookingSpecifications.matching(status, technicianPrefix, customerPrefix), creationOrdered(pageable, status)));
+    }
+
+    public Slice<BookingSummary> searchBookingsByCriteriaAfter(String status, String technicianPrefix, String customerPrefix,
+            PageCursor cursor, int size) {
+        logger.debug("Searching bookings with status={}, technicianPrefix={}, customerPrefix={} after id={}",
+                status, technicianPrefix, customerPrefix, cursor.id());
+        List<BookingSummary> bookings = serviceBookingRepository.searchSummaries(
+                BookingSpecifications.matching(status, technicianPrefix, customerPrefix)
+                        .and(BookingSpecifications.createdAfter(cursor.createdAt(), cursor.id())),
+                BookingSpecifications.creationOrder(status), PageCursor.limit(size));
+        return withSparePartIds(PageCursor.slice(bookings, size));
+    }
+
+    // Unsorted pages follow creation order
+    private static Pageable creationOrdered(Pageable pageable, String status) {
+        return pageable.getSort().isSorted() || pageable.isUnpaged() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), BookingSpecifications.creationOrder(status));
+    }
+
+    // Sparse fieldset reads (?fields=): the lookups above, reading only the selected columns and the joins they need
+    public Map<String, Object> getBooking(Long id, FieldSelection<ServiceBooking> fields) {
+        logger.debug("Fetching fields {} of booking with ID: {}", fields.names(), id);
+        return serviceBookingRepository.findFields(fields, BookingSpecifications.hasId(id), Sort.unsorted(), Limit.of(1))
+                .stream().findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Booking with ID " + id + " not found"));
+    }
+
+    public Page<Map<String, Object>> getAllBookings(FieldSelection<ServiceBooking> fields, Pageable pageable) {
+        return serviceBookingRepository.findFields(fields, Specification.allOf(), pageable);
+    }
+
+    // Rows carry createdAt, which the next cursor is built from
+    public Slice<Map<String, Object>> getBookingsAfter(FieldSelection<ServiceBooking> fields, PageCursor cursor, int size) {
+        List<Map<String, Object>> bookings = serviceBookingRepository.findFields(fields.with("createdAt"),
+                BookingSpecifications.createdAfter(cursor.createdAt(), cursor.id()), BookingSpecifications.creationOrder(null),
+                PageCursor.limit(size));
+        return PageCursor.slice(bookings, size);
+    }
+
+    public List<Map<String, Object>> getBookingsByCustomer(Long customerId, FieldSelection<ServiceBooking> fields) {
+        return serviceBookingRepository.findFields(fields, BookingSpecifications.hasCustomer(customerId), Sort.unsorted(),
+                Limit.unlimited());
+    }
+
+    public List<Map<String, Object>> getBookingsByStatus(String status, FieldSelection<ServiceBooking> fields) {
+        return serviceBookingRepository.findFields(fields, BookingSpecifications.hasStatus(status), Sort.unsorted(),
+                Limit.unlimited());
+    }
+
+    public Page<Map<String, Object>> searchBookingsByCriteria(String status, String technicianPrefix, String customerPrefix,
+            FieldSelection<ServiceBooking> fields, Pageable pageable) {
+        return serviceBookingRepository.findFields(fields,
+                BookingSpecifications.matching(status, technicianPrefix, customerPrefix), creationOrdered(pageable, status));
+    }
+
+    public Slice<Map<String, Object>> searchBookingsByCriteriaAfter(String status, String technicianPrefix,
+            String customerPrefix, FieldSelection<ServiceBooking> fields, PageCursor cursor, int size) {
+        List<Map<String, Object>> bookings = serviceBookingRepository.findFields(fields.with("createdAt"),
+                BookingSpecifications.matching(status, technicianPrefix, customerPrefix)
+                        .and(BookingSpecifications.createdAfter(cursor.createdAt(), cursor.id())),
+                BookingSpecifications.creationOrder(status), PageCursor.limit(size));
+        return PageCursor.slice(bookings, size);
+    }
+
+    /**
+     * Full-text search over booking notes, service type and spare part names, best match first. Bookings deleted
+     * after the index last saw them are left out of the page.
+     */
+    public Page<BookingSearchHit> searchBookingsByText(String query, Pageable pageable) {
+        logger.debug("Searching booking text for: {}", query);
+        Page<BookingSearchService.Match> matches = bookingSearchService.search(query, pageable);
+        if (matches.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, matches.getTotalElements());
         }
+        Map<Long, BookingSummary> bookings = withSparePartIds(serviceBookingRepository.findSummariesByIdIn(
+                matches.map(BookingSearchService.Match::bookingId).getContent())).stream()
+                .collect(Collectors.toMap(BookingSummary::id, Function.identity()));
+        List<BookingSearchHit> hits = matches.stream()
+                .filter(match -> bookings.containsKey(match.bookingId()))
+                .map(match -> new BookingSearchHit(match.score(), bookings.get(match.bookingId())))
+                .toList();
+        return new PageImpl<>(hits, pageable, matches.getTotalElements());
+    }
+
+    public long rebuildSearchIndex() {
+        return bookingSearchService.rebuild();
+    }
 
-        for (SparePart part : booking.getSpareParts()) {
-            part.setQuantity(part.getQuantity() + 1);
-            sparePartRepository.save(part);
+    private Slice<BookingSummary> withSparePartIds(Slice<BookingSummary> bookings) {
+        Map<Long, List<Long>> sparePartIds = findSparePartIds(bookings.getContent());
+        return bookings.map(booking -> booking.withSparePartIds(sparePartIds.getOrDefault(booking.id(), List.of())));
+    }
+
+    private Page<BookingSummary> withSparePartIds(Page<BookingSummary> bookings) {
+        Map<Long, List<Long>> sparePartIds = findSparePartIds(bookings.getContent());
+        return bookings.map(booking -> booking.withSparePartIds(sparePartIds.getOrDefault(booking.id(), List.of())));
+    }
+
+    List<BookingSummary> withSparePartIds(List<BookingSummary> bookings) {
+        Map<Long, List<Long>> sparePartIds = findSparePartIds(bookings);
+        return bookings.stream()
+                .map(booking -> booking.withSparePartIds(sparePartIds.getOrDefault(booking.id(), List.of())))
+                .toList();
+    }
+
+    // One IN query for every booking on the page, however many bookings and parts there are
+    private Map<Long, List<Long>> findSparePartIds(List<BookingSummary> bookings) {
+        if (bookings.isEmpty()) {
+            return Map.of();
         }
+        return serviceBookingRepository.findSparePartRefs(bookings.stream().map(BookingSummary::id).toList()).stream()
+                .collect(Collectors.groupingBy(ServiceBookingRepository.SparePartRef::getBookingId,
+                        Collectors.mapping(ServiceBookingRepository.SparePartRef::getSparePartId, Collectors.toList())));
+    }
 
-        serviceBookingRepository.deleteById(id);
+    // The booking first, then the entities serialized with it and its spare parts in ID order
+    private static String bookingTag(Long booking, Long customer, Long serviceType, Long slot, Stream<Long> spareParts) {
+        return EntityTags.of(Stream.concat(Stream.of(booking, customer, serviceType, slot), spareParts).toArray());
     }
 
-    public Page<ServiceBooking> searchBookingsByCriteria(String status, String technicianPrefix, String customerPrefix, Pageable pageable) {
-        logger.debug("Searching bookings with status={}, technicianPrefix={}, customerPrefix={}", status, technicianPrefix, customerPrefix);
-        return serviceBookingRepository.findByCriteria(status, technicianPrefix, customerPrefix, pageable);
+    private BookingConflictException conflict(Long id, OptimisticLockingFailureException cause) {
+        Long currentVersion = serviceBookingRepository.findVersionById(id).orElse(null);
+        return new BookingConflictException("Booking with ID " + id + " was modified concurrently, reload it and retry",
+                currentVersion, cause);
+    }
+
+    // Lane keys for BookingLanes: the technician owning the slot a write touches, or null if there is none
+    public String technicianForSlot(Long slotId) {
+        return slotId != null ? appointmentSlotService.findTechnician(slotId) : null;
+    }
+
+    public String technicianForBooking(Long bookingId) {
+        return serviceBookingRepository.findSlotTechnicianById(bookingId).orElse(null);
+    }
+
+    // Customer and service type are attached as references, so a missing row only shows up as a foreign key violation on flush
+    private ServiceBooking saveBooking(ServiceBooking booking, ServiceBookingDTO bookingDTO) {
+        try {
+            ServiceBooking savedBooking = serviceBookingRepository.saveAndFlush(booking);
+            bookingSearchService.indexAfterCommit(List.of(savedBooking.getId()));
+            return savedBooking;
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, ServiceBooking.CUSTOMER_FOREIGN_KEY)) {
+                throw new EntityNotFoundException("Customer with ID " + bookingDTO.getCustomerId() + " not found");
+            }
+            if (violates(e, ServiceBooking.SERVICE_TYPE_FOREIGN_KEY)) {
+                throw new EntityNotFoundException("Service type with ID " + bookingDTO.getServiceTypeId() + " not found");
+            }
+            throw e;
+        }
+    }
+
+    // Some dialects clip the extracted constraint name (H2 2.x drops its first letter), so the driver message is checked too
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && constraint.equalsIgnoreCase(violation.getConstraintName())) {
+            return true;
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+
+    private String validateBatchItem(ServiceBookingDTO dto, Set<Long> existingCustomers, Set<Long> existingServiceTypes,
+            Map<Long, AppointmentSlot> slots, Map<Long, SparePart> parts) {
+        if (dto == null) {
+            return "Booking is mandatory";
+        }
+        if (dto.getStatus() == null || dto.getStatus().isBlank()) {
+            return "Status is mandatory";
+        }
+        if (dto.getCustomerId() == null || !existingCustomers.contains(dto.getCustomerId())) {
+            return "Customer with ID " + dto.getCustomerId() + " not found";
+        }
+        if (dto.getServiceTypeId() == null || !existingServiceTypes.contains(dto.getServiceTypeId())) {
+            return "Service type with ID " + dto.getServiceTypeId() + " not found";
+        }
+        AppointmentSlot slot = dto.getAppointmentSlotId() != null ? slots.get(dto.getAppointmentSlotId()) : null;
+        if (slot == null) {
+            return "Appointment slot with ID " + dto.getAppointmentSlotId() + " not found";
+        }
+        if (!slot.isAvailable()) {
+            return "Selected appointment slot is not available";
+        }
+        if (dto.getSparePartIds() != null) {
+            for (Long partId : new HashSet<>(dto.getSparePartIds())) {
+                SparePart part = partId != null ? parts.get(partId) : null;
+                if (part == null) {
+                    return "Spare part with ID " + partId + " not found";
+                }
+                if (part.getQuantity() <= 0) {
+                    return "Spare part out of stock: " + part.getPartName();
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<SparePart> distinctParts(ServiceBookingDTO dto, Map<Long, SparePart> parts) {
+        if (dto.getSparePartIds() == null) {
+            return new ArrayList<>();
+        }
+        return dto.getSparePartIds().stream()
+                .distinct()
+                .map(parts::get)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private Set<Long> collectIds(Collection<ServiceBookingDTO> bookingDTOs, Function<ServiceBookingDTO, Long> idGetter) {
+        return bookingDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
     private ServiceBooking findBookingOrThrow(Long id) {
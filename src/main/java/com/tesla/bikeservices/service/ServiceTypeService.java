@@ -1,54 +1,128 @@
 package com.tesla.bikeservices.service;
 
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.ServiceType;
 import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.response.EntityTags;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 
+/**
+ * Service type catalog. The catalog hardly ever changes, so lookups by ID and offset pages are served from local
+ * Caffeine caches bounded by {@code service-type-cache.max-entries} and expiring after
+ * {@code service-type-cache.ttl}; local writes invalidate them once they commit, and the TTL bounds how long a
+ * change made through another instance can go unseen. Hit, miss and eviction counts are published as the
+ * {@code cache.*} metrics tagged {@code cache=serviceTypes} and {@code cache=serviceTypePages}.
+ */
 @Service
 public class ServiceTypeService {
 
     private final ServiceTypeRepository serviceTypeRepository;
+    private final Cache<Long, ServiceType> serviceTypesById;
+    private final Cache<Pageable, Page<ServiceType>> serviceTypePages;
 
     public ServiceTypeService(ServiceTypeRepository serviceTypeRepository) {
+        this(serviceTypeRepository, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+    }
+
+    @Autowired
+    public ServiceTypeService(ServiceTypeRepository serviceTypeRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${service-type-cache.max-entries:1000}") int maxEntries,
+                              @Value("${service-type-cache.ttl:PT10M}") Duration ttl) {
         this.serviceTypeRepository = serviceTypeRepository;
+        this.serviceTypesById = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build(), "serviceTypes");
+        this.serviceTypePages = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build(), "serviceTypePages");
     }
 
     @Transactional
     public ServiceType createServiceType(ServiceType serviceType) {
-        return serviceTypeRepository.save(serviceType);
+        ServiceType savedServiceType = serviceTypeRepository.save(serviceType);
+        AfterCommit.run(serviceTypePages::invalidateAll);
+        return savedServiceType;
     }
 
     public ServiceType getServiceType(Long id) {
-        return findServiceTypeOrThrow(id);
+        ServiceType serviceType = serviceTypesById.get(id, key -> serviceTypeRepository.findById(key).orElse(null));
+        if (serviceType == null) {
+            throw new EntityNotFoundException("Service type with ID " + id + " not found");
+        }
+        return serviceType;
+    }
+
+    // Bookings attach the service type as a reference; checking it against the cache spares them a SELECT per write
+    public ServiceType getReference(Long id) {
+        getServiceType(id);
+        return serviceTypeRepository.getReferenceById(id);
+    }
+
+    // One IN query for the IDs not cached yet; the rows found are cached for the getReference calls that follow
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return serviceTypesById.getAll(ids, unknown -> serviceTypeRepository.findAllById(Set.copyOf(unknown)).stream()
+                .collect(Collectors.toMap(ServiceType::getId, Function.identity()))).keySet();
     }
 
     public Page<ServiceType> getAllServiceTypes(Pageable pageable) {
-        return serviceTypeRepository.findAll(pageable);
+        return serviceTypePages.get(pageable, serviceTypeRepository::findAll);
+    }
+
+    public Slice<ServiceType> getServiceTypesAfter(PageCursor cursor, int size) {
+        return PageCursor.slice(serviceTypeRepository.findByIdGreaterThanOrderByIdAsc(cursor.id(), PageCursor.limit(size)), size);
     }
 
     public ServiceType updateServiceType(Long id, ServiceType serviceTypeDetails) {
+        return updateServiceType(id, serviceTypeDetails, null);
+    }
+
+    // ifMatch is the client's If-Match header, or null for an unconditional update
+    public ServiceType updateServiceType(Long id, ServiceType serviceTypeDetails, String ifMatch) {
         ServiceType serviceType = findServiceTypeOrThrow(id);
+        EntityTags.requireMatch(ifMatch, EntityTags.of(serviceType.getVersion()), "Service type with ID " + id);
         serviceType.setName(serviceTypeDetails.getName());
         serviceType.setEstimatedDurationMinutes(serviceTypeDetails.getEstimatedDurationMinutes());
         serviceType.setCost(serviceTypeDetails.getCost());
         serviceType.setDescription(serviceTypeDetails.getDescription());
-        return serviceTypeRepository.save(serviceType);
+        ServiceType savedServiceType = serviceTypeRepository.save(serviceType);
+        AfterCommit.run(() -> invalidate(id));
+        return savedServiceType;
     }
 
     public void deleteServiceType(Long id) {
         findServiceTypeOrThrow(id);
         serviceTypeRepository.deleteById(id);
+        AfterCommit.run(() -> invalidate(id));
     }
 
+    // Writes read the row itself rather than the shared cached instance
     private ServiceType findServiceTypeOrThrow(Long id) {
         return serviceTypeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Service type with ID " + id + " not found"));
     }
-}
\ No newline at end of file
+
+    private void invalidate(Long id) {
+        serviceTypesById.invalidate(id);
+        serviceTypePages.invalidateAll();
+    }
+}
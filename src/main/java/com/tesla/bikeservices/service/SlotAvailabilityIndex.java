@@ -0,0 +1,374 @@
+package com.tesla.bikeservices.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.tesla.bikeservices.entity.AppointmentSlot;
+
+/**
+ * In-memory view of appointment slot availability, so the slot search endpoints never hit the database.
+ * Slots are grouped per technician per day; each day keeps its slots ordered by start time together with a
+ * BitSet holding one bit per slot, set while that slot is available. The index only mirrors committed state:
+ * {@link AppointmentSlotService} applies changes after its transactions commit. Each technician's slots are also
+ * kept in a {@link SlotIntervalMap} so clashes with a new slot can be found without a query.
+ * <p>
+ * Commit callbacks of concurrent transactions can run in any order, so every change carries the slot's
+ * {@code @Version} after the write and changes no newer than the version already indexed are dropped.
+ */
+class SlotAvailabilityIndex {
+
+    private static final Comparator<SlotSnapshot> BY_START =
+            Comparator.comparing(SlotSnapshot::startTime).thenComparing(SlotSnapshot::id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Replaced wholesale by rebuild, always under the write lock
+    private NavigableMap<LocalDate, Map<String, DaySchedule>> days = new TreeMap<>();
+    private Map<Long, SlotSnapshot> slotsById = new HashMap<>();
+    private Map<String, SlotIntervalMap> intervalsByTechnician = new HashMap<>();
+    // Latest version applied per slot; deleted slots keep a MAX_VALUE entry until the next rebuild
+    private Map<Long, Long> versionsById = new HashMap<>();
+    // Changes applied while a rebuild is loading, replayed onto the loaded contents before they are swapped in
+    private List<Consumer<SlotAvailabilityIndex>> pendingChanges;
+    private volatile boolean ready;
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reloads the index from {@code loader} and checks the result against the repository counts. The slots are
+     * loaded into fresh structures without the lock, so reads keep being served from the current contents; then,
+     * under the write lock, changes applied meanwhile are replayed (those no newer than the loaded version drop
+     * out) and the new contents are swapped in. Returns whether the index is consistent; an inconsistent index
+     * is left unready and queries fall back to the database.
+     */
+    synchronized boolean rebuild(Supplier<List<AppointmentSlot>> loader, LongSupplier totalCount, LongSupplier availableCount) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            SlotAvailabilityIndex loaded = new SlotAvailabilityIndex();
+            loader.get().forEach(slot -> {
+                loaded.add(slot);
+                loaded.recordVersion(slot.getId(), slot.getVersion());
+            });
+            long total = totalCount.getAsLong();
+            long available = availableCount.getAsLong();
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.accept(loaded));
+                days = loaded.days;
+                slotsById = loaded.slotsById;
+                intervalsByTechnician = loaded.intervalsByTechnician;
+                versionsById = loaded.versionsById;
+                ready = countsMatch(total, available);
+                return ready;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Whether the index holds exactly the given numbers of slots and available slots
+    boolean matches(long totalCount, long availableCount) {
+        lock.readLock().lock();
+        try {
+            return countsMatch(totalCount, availableCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(AppointmentSlot slot) {
+        apply(index -> index.applyPut(slot));
+    }
+
+    void remove(Long slotId) {
+        apply(index -> index.applyRemove(slotId));
+    }
+
+    void setAvailable(Long slotId, boolean available, Long version) {
+        apply(index -> index.applySetAvailable(slotId, available, version));
+    }
+
+    private void apply(Consumer<SlotAvailabilityIndex> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(this);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyPut(AppointmentSlot slot) {
+        if (recordVersion(slot.getId(), slot.getVersion())) {
+            remove(slotsById.get(slot.getId()));
+            add(slot);
+        }
+    }
+
+    private void applyRemove(Long slotId) {
+        versionsById.put(slotId, Long.MAX_VALUE);
+        remove(slotsById.get(slotId));
+    }
+
+    private void applySetAvailable(Long slotId, boolean available, Long version) {
+        SlotSnapshot slot = slotsById.get(slotId);
+        if (slot != null && recordVersion(slotId, version)) {
+            DaySchedule schedule = scheduleOf(slot);
+            int index = schedule.indexOf(slot);
+            schedule.available.set(index, available);
+            if (version != null) {
+                SlotSnapshot updated = slot.withVersion(version);
+                slotsById.put(slotId, updated);
+                schedule.slots.set(index, updated);
+            }
+        }
+    }
+
+    private boolean countsMatch(long totalCount, long availableCount) {
+        return slotsById.size() == totalCount
+                && slotsById.keySet().stream().filter(this::isAvailable).count() == availableCount;
+    }
+
+    // Available slots starting within [start, end], across all technicians
+    List<AppointmentSlot> findAvailable(LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            List<AppointmentSlot> result = new ArrayList<>();
+            for (Map<String, DaySchedule> schedules : daysBetween(start, end)) {
+                schedules.values().forEach(schedule -> schedule.collectAvailable(start, end, result));
+            }
+            result.sort(Comparator.comparing(AppointmentSlot::getStartTime).thenComparing(AppointmentSlot::getId));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<AppointmentSlot> findAvailable(String technician, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            List<AppointmentSlot> result = new ArrayList<>();
+            for (Map<String, DaySchedule> schedules : daysBetween(start, end)) {
+                DaySchedule schedule = schedules.get(technician);
+                if (schedule != null) {
+                    schedule.collectAvailable(start, end, result);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Each technician's available slots starting within [start, end], in start order
+    Collection<List<SlotSnapshot>> availableByTechnician(LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            Map<String, List<SlotSnapshot>> result = new HashMap<>();
+            for (Map<String, DaySchedule> schedules : daysBetween(start, end)) {
+                schedules.forEach((technician, schedule) -> schedule.forEachAvailable(start, end,
+                        result.computeIfAbsent(technician, key -> new ArrayList<>())::add));
+            }
+            return result.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    String technicianOf(Long slotId) {
+        lock.readLock().lock();
+        try {
+            SlotSnapshot slot = slotsById.get(slotId);
+            return slot != null ? slot.technician() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean overlaps(String technician, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        lock.readLock().lock();
+        try {
+            SlotIntervalMap intervals = intervalsByTechnician.get(technician);
+            return intervals != null && intervals.overlaps(start, end, excludeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Map<String, DaySchedule>> daysBetween(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            return List.of();
+        }
+        return days.subMap(start.toLocalDate(), true, end.toLocalDate(), true).values();
+    }
+
+    // Records version as the slot's latest unless a newer one was applied already; null versions always apply
+    private boolean recordVersion(Long slotId, Long version) {
+        if (version == null) {
+            return !Long.valueOf(Long.MAX_VALUE).equals(versionsById.get(slotId));
+        }
+        Long applied = versionsById.get(slotId);
+        if (applied != null && applied >= version) {
+            return false;
+        }
+        versionsById.put(slotId, version);
+        return true;
+    }
+
+    private boolean isAvailable(Long slotId) {
+        SlotSnapshot slot = slotsById.get(slotId);
+        DaySchedule schedule = scheduleOf(slot);
+        return schedule.available.get(schedule.indexOf(slot));
+    }
+
+    private void add(AppointmentSlot slot) {
+        SlotSnapshot snapshot = SlotSnapshot.of(slot);
+        slotsById.put(snapshot.id(), snapshot);
+        days.computeIfAbsent(snapshot.startTime().toLocalDate(), day -> new HashMap<>())
+                .computeIfAbsent(snapshot.technician(), technician -> new DaySchedule())
+                .add(snapshot, slot.isAvailable());
+        intervalsByTechnician.computeIfAbsent(snapshot.technician(), technician -> new SlotIntervalMap())
+                .add(snapshot.id(), snapshot.startTime(), snapshot.endTime());
+    }
+
+    private void remove(SlotSnapshot slot) {
+        if (slot == null) {
+            return;
+        }
+        slotsById.remove(slot.id());
+        SlotIntervalMap intervals = intervalsByTechnician.get(slot.technician());
+        intervals.remove(slot.id(), slot.startTime(), slot.endTime());
+        if (intervals.isEmpty()) {
+            intervalsByTechnician.remove(slot.technician());
+        }
+        LocalDate day = slot.startTime().toLocalDate();
+        Map<String, DaySchedule> schedules = days.get(day);
+        DaySchedule schedule = schedules.get(slot.technician());
+        schedule.remove(slot);
+        if (schedule.slots.isEmpty()) {
+            schedules.remove(slot.technician());
+            if (schedules.isEmpty()) {
+                days.remove(day);
+            }
+        }
+    }
+
+    private DaySchedule scheduleOf(SlotSnapshot slot) {
+        return days.get(slot.startTime().toLocalDate()).get(slot.technician());
+    }
+
+    // One technician's slots on one day, ordered by start; bit i of available belongs to slots.get(i)
+    private static final class DaySchedule {
+
+        private final List<SlotSnapshot> slots = new ArrayList<>();
+        private final BitSet available = new BitSet();
+
+        void add(SlotSnapshot slot, boolean isAvailable) {
+            int index = -(Collections.binarySearch(slots, slot, BY_START) + 1);
+            shiftBits(index, 1);
+            slots.add(index, slot);
+            available.set(index, isAvailable);
+        }
+
+        void remove(SlotSnapshot slot) {
+            int index = indexOf(slot);
+            slots.remove(index);
+            shiftBits(index + 1, -1);
+        }
+
+        int indexOf(SlotSnapshot slot) {
+            return Collections.binarySearch(slots, slot, BY_START);
+        }
+
+        void collectAvailable(LocalDateTime start, LocalDateTime end, List<AppointmentSlot> result) {
+            forEachAvailable(start, end, slot -> result.add(slot.toEntity()));
+        }
+
+        void forEachAvailable(LocalDateTime start, LocalDateTime end, Consumer<SlotSnapshot> action) {
+            for (int i = available.nextSetBit(firstStartingAtOrAfter(start)); i >= 0 && i < slots.size(); i = available.nextSetBit(i + 1)) {
+                SlotSnapshot slot = slots.get(i);
+                if (slot.startTime().isAfter(end)) {
+                    break;
+                }
+                action.accept(slot);
+            }
+        }
+
+        private int firstStartingAtOrAfter(LocalDateTime start) {
+            int low = 0;
+            int high = slots.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (slots.get(mid).startTime().isBefore(start)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Moves every bit from position "from" onwards by "offset" places, keeping bits below "from" untouched
+        private void shiftBits(int from, int offset) {
+            BitSet tail = available.get(from, Math.max(from, available.length()));
+            available.clear(Math.min(from, from + offset), Math.max(from, available.length()));
+            for (int bit = tail.nextSetBit(0); bit >= 0; bit = tail.nextSetBit(bit + 1)) {
+                available.set(from + offset + bit);
+            }
+        }
+    }
+
+    record SlotSnapshot(Long id, String technician, LocalDateTime startTime, LocalDateTime endTime, Long version) {
+
+        static SlotSnapshot of(AppointmentSlot slot) {
+            return new SlotSnapshot(slot.getId(), slot.getTechnician(), slot.getStartTime(), slot.getEndTime(),
+                    slot.getVersion());
+        }
+
+        SlotSnapshot withVersion(Long newVersion) {
+            return new SlotSnapshot(id, technician, startTime, endTime, newVersion);
+        }
+
+        // Index hits are always available slots; a fresh detached entity keeps callers from mutating the index
+        AppointmentSlot toEntity() {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setId(id);
+            slot.setTechnician(technician);
+            slot.setStartTime(startTime);
+            slot.setEndTime(endTime);
+            slot.setAvailable(true);
+            slot.setVersion(version);
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.tesla.bikeservices.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.service.SlotAvailabilityIndex.SlotSnapshot;
+
+/**
+ * Fallback for when {@link SlotAvailabilityIndex} is not ready: at startup, or after a build or reconcile found it
+ * inconsistent. Once the index is ready it answers every search and this cache is not consulted. A bucket holds
+ * one calendar day's available slots per technician, loaded with a single query, and any window is assembled from
+ * the buckets of the days it touches, so overlapping polls share their reads while the index is down. At most
+ * {@code maxDays} buckets stay resident; wider windows bypass the cache. A bucket also records every slot ID it
+ * was loaded with, available or not, so a change to one slot drops just the bucket holding it.
+ */
+class SlotDayCache {
+
+    private static final Comparator<SlotSnapshot> BY_START =
+            Comparator.comparing(SlotSnapshot::startTime).thenComparing(SlotSnapshot::id);
+
+    private final int maxDays;
+    private final Cache<LocalDate, DayBucket> buckets;
+    // Bumped by every invalidation; a bucket whose load overlapped one is dropped instead of kept for the TTL
+    private final AtomicLong generation = new AtomicLong();
+
+    SlotDayCache(int maxDays, Duration ttl) {
+        this.maxDays = maxDays;
+        this.buckets = Caffeine.newBuilder().maximumSize(maxDays).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * Available slots starting within [start, end], for one technician or for all when {@code technician} is
+     * null, ordered by start. {@code loader} returns every slot starting within [from, to) and is called once
+     * per missing day. Returns null for windows spanning more days than the cache keeps.
+     */
+    List<AppointmentSlot> findAvailable(String technician, LocalDateTime start, LocalDateTime end,
+            Function<LocalDate, List<AppointmentSlot>> loader) {
+        if (start.isAfter(end)) {
+            return List.of();
+        }
+        if (ChronoUnit.DAYS.between(start.toLocalDate(), end.toLocalDate()) >= maxDays) {
+            return null;
+        }
+        List<AppointmentSlot> result = new ArrayList<>();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+            long loadGeneration = generation.get();
+            DayBucket bucket = buckets.get(day, key -> DayBucket.of(loader.apply(key)));
+            // An invalidation may have run while the bucket loaded and missed it, as in-flight loads are not yet
+            // in the map; this call still uses the bucket, but it is not kept
+            if (generation.get() != loadGeneration) {
+                buckets.asMap().remove(day, bucket);
+            }
+            List<SlotSnapshot> slots = technician != null
+                    ? bucket.availableByTechnician().getOrDefault(technician, List.of())
+                    : bucket.available();
+            for (SlotSnapshot slot : slots) {
+                if (!slot.startTime().isBefore(start) && !slot.startTime().isAfter(end)) {
+                    result.add(slot.toEntity());
+                }
+            }
+        }
+        return result;
+    }
+
+    // A slot can move between days, so both the bucket it was loaded into and the day it starts on now are dropped
+    void invalidate(Long slotId, LocalDateTime startTime) {
+        generation.incrementAndGet();
+        if (startTime != null) {
+            buckets.invalidate(startTime.toLocalDate());
+        }
+        invalidate(slotId);
+    }
+
+    void invalidate(Long slotId) {
+        generation.incrementAndGet();
+        buckets.asMap().entrySet().removeIf(entry -> entry.getValue().slotIds().contains(slotId));
+    }
+
+    private record DayBucket(List<SlotSnapshot> available, Map<String, List<SlotSnapshot>> availableByTechnician,
+            Set<Long> slotIds) {
+
+        static DayBucket of(List<AppointmentSlot> slots) {
+            List<SlotSnapshot> available = slots.stream()
+                    .filter(AppointmentSlot::isAvailable)
+                    .map(SlotSnapshot::of)
+                    .sorted(BY_START)
+                    .toList();
+            return new DayBucket(available,
+                    available.stream().collect(Collectors.groupingBy(SlotSnapshot::technician)),
+                    slots.stream().map(AppointmentSlot::getId).collect(Collectors.toUnmodifiableSet()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tesla.bikeservices.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * One technician's slot intervals ordered by start time. An interval [start, end) overlaps the query window
+ * when it starts before the window ends and ends after the window starts; only intervals starting within the
+ * longest known slot duration before the window can do that, so a query is a single O(log n) range seek plus
+ * the handful of neighbours it returns. Not thread-safe; callers guard it.
+ */
+class SlotIntervalMap {
+
+    private static final Comparator<Interval> BY_START = Comparator.comparing(Interval::start)
+            .thenComparing(Interval::id, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final NavigableSet<Interval> intervals = new TreeSet<>(BY_START);
+    // Only ever grows; a stale maximum just widens the seek window a little
+    private Duration maxDuration = Duration.ZERO;
+
+    // id may be null for intervals not persisted yet
+    void add(Long id, LocalDateTime start, LocalDateTime end) {
+        intervals.add(new Interval(id, start, end));
+        Duration duration = Duration.between(start, end);
+        if (duration.compareTo(maxDuration) > 0) {
+            maxDuration = duration;
+        }
+    }
+
+    void remove(Long id, LocalDateTime start, LocalDateTime end) {
+        intervals.remove(new Interval(id, start, end));
+    }
+
+    boolean isEmpty() {
+        return intervals.isEmpty();
+    }
+
+    // Whether any interval other than excludeId overlaps [start, end); slots that merely touch do not overlap
+    boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludeId) {
+        Interval from = probe(start.minus(maxDuration));
+        Interval to = probe(end);
+        for (Interval interval : intervals.subSet(from, true, to, false)) {
+            if (interval.end().isAfter(start) && (excludeId == null || !excludeId.equals(interval.id()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sorts before every real interval with the same start, since real IDs are positive or null
+    private static Interval probe(LocalDateTime start) {
+        return new Interval(Long.MIN_VALUE, start, start);
+    }
+
+    private record Interval(Long id, LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.tesla.bikeservices.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.tesla.bikeservices.dto.SlotWindow;
+import com.tesla.bikeservices.service.SlotAvailabilityIndex.SlotSnapshot;
+
+/**
+ * Finds the earliest windows of back-to-back free slots long enough for a service. Each technician's free slots,
+ * sorted by start, are walked by a cursor that yields that technician's windows in start order; a priority queue
+ * over the cursors merges them so only as many windows are computed as are returned. Windows of one technician
+ * never overlap, so the results are distinct appointments rather than shifted copies of the same one.
+ */
+final class SlotWindowFinder {
+
+    private SlotWindowFinder() {
+    }
+
+    static List<SlotWindow> findEarliest(Collection<List<SlotSnapshot>> freeSlotsByTechnician, Duration duration,
+                                         LocalDateTime latestStart, int count) {
+        PriorityQueue<WindowCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing((WindowCursor cursor) -> cursor.current.getStartTime())
+                        .thenComparing(cursor -> cursor.current.getTechnician()));
+        for (List<SlotSnapshot> freeSlots : freeSlotsByTechnician) {
+            WindowCursor cursor = new WindowCursor(freeSlots, duration);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        List<SlotWindow> windows = new ArrayList<>(count);
+        while (windows.size() < count && !cursors.isEmpty()) {
+            WindowCursor cursor = cursors.poll();
+            if (cursor.current.getStartTime().isAfter(latestStart)) {
+                break;
+            }
+            windows.add(cursor.current);
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return windows;
+    }
+
+    private static final class WindowCursor {
+
+        private final List<SlotSnapshot> slots;
+        private final Duration duration;
+        private int next;
+        private SlotWindow current;
+
+        WindowCursor(List<SlotSnapshot> slots, Duration duration) {
+            this.slots = slots;
+            this.duration = duration;
+        }
+
+        // Moves to the next window starting at or after "next"; each slot is visited at most once overall
+        boolean advance() {
+            while (next < slots.size()) {
+                int first = next;
+                int last = first;
+                while (Duration.between(slots.get(first).startTime(), slots.get(last).endTime()).compareTo(duration) < 0
+                        && last + 1 < slots.size()
+                        && slots.get(last + 1).startTime().equals(slots.get(last).endTime())) {
+                    last++;
+                }
+                next = last + 1;
+                if (Duration.between(slots.get(first).startTime(), slots.get(last).endTime()).compareTo(duration) >= 0) {
+                    List<Long> slotIds = new ArrayList<>(last - first + 1);
+                    for (int i = first; i <= last; i++) {
+                        slotIds.add(slots.get(i).id());
+                    }
+                    current = new SlotWindow(slots.get(first).technician(), slots.get(first).startTime(),
+                            slots.get(last).endTime(), slotIds);
+                    return true;
+                }
+                // The run ended at a gap before covering the duration; no later start inside it can do better
+            }
+            current = null;
+            return false;
+        }
+    }
+}
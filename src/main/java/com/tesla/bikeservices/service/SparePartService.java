@@ -1,42 +1,120 @@
 package com.tesla.bikeservices.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.SparePart;
 import com.tesla.bikeservices.repository.SparePartRepository;
+import com.tesla.bikeservices.response.EntityTags;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 
+/**
+ * Spare part catalog and stock. Reads by ID, by part number and by page are served from local Caffeine caches
+ * bounded by {@code spare-part-cache.max-entries} and expiring after {@code spare-part-cache.ttl}. The cached
+ * parts carry their stock level, so every stock change here, including reservations and releases made by
+ * booking writes, invalidates the affected parts once it commits. Cache statistics are published as the
+ * {@code cache.*} metrics tagged {@code cache=spareParts}, {@code cache=sparePartNumbers} and
+ * {@code cache=sparePartPages}.
+ */
 @Service
 public class SparePartService {
 
     private final SparePartRepository sparePartRepository;
+    private final Cache<Long, SparePart> sparePartsById;
+    private final Cache<String, Long> sparePartIdsByNumber;
+    private final Cache<Pageable, Page<SparePart>> sparePartPages;
 
     public SparePartService(SparePartRepository sparePartRepository) {
+        this(sparePartRepository, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10));
+    }
+
+    @Autowired
+    public SparePartService(SparePartRepository sparePartRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${spare-part-cache.max-entries:10000}") int maxEntries,
+                            @Value("${spare-part-cache.ttl:PT10M}") Duration ttl) {
         this.sparePartRepository = sparePartRepository;
+        this.sparePartsById = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build(), "spareParts");
+        this.sparePartIdsByNumber = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build(), "sparePartNumbers");
+        this.sparePartPages = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).recordStats().build(), "sparePartPages");
     }
 
     public SparePart createSparePart(SparePart sparePart) {
-        return sparePartRepository.save(sparePart);
+        SparePart savedSparePart = sparePartRepository.save(sparePart);
+        AfterCommit.run(sparePartPages::invalidateAll);
+        return savedSparePart;
     }
 
     public SparePart getSparePart(Long id) {
-        return findSparePartOrThrow(id);
+        SparePart sparePart = sparePartsById.get(id, key -> sparePartRepository.findById(key).orElse(null));
+        if (sparePart == null) {
+            throw new EntityNotFoundException("Spare part with ID " + id + " not found");
+        }
+        return sparePart;
+    }
+
+    // For warehouse scanners, which only know part numbers; the number resolves to an ID and the part comes from the ID cache
+    public SparePart getSparePartByNumber(String partNumber) {
+        Long id = sparePartIdsByNumber.get(partNumber,
+                key -> sparePartRepository.findFirstByPartNumberOrderByIdAsc(key).map(SparePart::getId).orElse(null));
+        if (id == null) {
+            throw new EntityNotFoundException("Spare part with number " + partNumber + " not found");
+        }
+        return getSparePart(id);
     }
 
     public Page<SparePart> getAllSpareParts(Pageable pageable) {
-        return sparePartRepository.findAll(pageable);
+        return sparePartPages.get(pageable, sparePartRepository::findAll);
+    }
+
+    public Slice<SparePart> getSparePartsAfter(PageCursor cursor, int size) {
+        return PageCursor.slice(sparePartRepository.findByIdGreaterThanOrderByIdAsc(cursor.id(), PageCursor.limit(size)), size);
     }
 
     public SparePart updateSparePart(Long id, SparePart sparePartDetails) {
+        return updateSparePart(id, sparePartDetails, null);
+    }
+
+    // ifMatch is the client's If-Match header, or null for an unconditional update
+    public SparePart updateSparePart(Long id, SparePart sparePartDetails, String ifMatch) {
         SparePart sparePart = findSparePartOrThrow(id);
+        EntityTags.requireMatch(ifMatch, EntityTags.of(sparePart.getVersion()), "Spare part with ID " + id);
+        String oldPartNumber = sparePart.getPartNumber();
         sparePart.setPartName(sparePartDetails.getPartName());
         sparePart.setPartNumber(sparePartDetails.getPartNumber());
         sparePart.setQuantity(sparePartDetails.getQuantity());
         sparePart.setPrice(sparePartDetails.getPrice());
-        return sparePartRepository.save(sparePart);
+        SparePart savedSparePart = sparePartRepository.save(sparePart);
+        AfterCommit.run(() -> {
+            sparePartIdsByNumber.invalidateAll(List.of(oldPartNumber, savedSparePart.getPartNumber()));
+            invalidate(Set.of(id));
+        });
+        return savedSparePart;
     }
 
     public SparePart updateStock(Long id, int quantity) {
@@ -45,16 +123,98 @@ public class SparePartService {
         }
         SparePart sparePart = findSparePartOrThrow(id);
         sparePart.setQuantity(quantity);
-        return sparePartRepository.save(sparePart);
+        SparePart savedSparePart = sparePartRepository.save(sparePart);
+        AfterCommit.run(() -> invalidate(Set.of(id)));
+        return savedSparePart;
     }
 
     public void deleteSparePart(Long id) {
-        findSparePartOrThrow(id);
+        String partNumber = findSparePartOrThrow(id).getPartNumber();
         sparePartRepository.deleteById(id);
+        AfterCommit.run(() -> {
+            sparePartIdsByNumber.invalidate(partNumber);
+            invalidate(Set.of(id));
+        });
+    }
+
+    @Transactional
+    public List<SparePart> reserveParts(Collection<Long> partIds) {
+        return exchangeParts(List.of(), partIds);
+    }
+
+    @Transactional
+    public void releaseParts(Collection<Long> partIds) {
+        exchangeParts(partIds, List.of());
     }
 
+    /**
+     * Returns one unit of each released part to stock and takes one unit of each reserved part, all or nothing.
+     * Every affected row is locked up front in ID order and each direction is a single set-based UPDATE,
+     * with the decrement guarded by quantity > 0 so stock can never go negative.
+     */
+    @Transactional
+    public List<SparePart> exchangeParts(Collection<Long> releasedIds, Collection<Long> reservedIds) {
+        Set<Long> released = releasedIds != null ? new TreeSet<>(releasedIds) : Set.of();
+        Set<Long> reserved = reservedIds != null ? new TreeSet<>(reservedIds) : Set.of();
+        if (released.isEmpty() && reserved.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> affected = new TreeSet<>(released);
+        affected.addAll(reserved);
+        AfterCommit.run(() -> invalidate(affected));
+        Map<Long, SparePart> locked = sparePartRepository.lockAllByIdInOrder(affected).stream()
+                .collect(Collectors.toMap(SparePart::getId, Function.identity()));
+
+        for (Long id : reserved) {
+            SparePart part = locked.get(id);
+            if (part == null) {
+                throw new EntityNotFoundException("Spare part with ID " + id + " not found");
+            }
+            int available = part.getQuantity() + (released.contains(id) ? 1 : 0);
+            if (available <= 0) {
+                throw new IllegalStateException("Spare part out of stock: " + part.getPartName());
+            }
+        }
+
+        if (!released.isEmpty()) {
+            sparePartRepository.incrementStock(released);
+        }
+        if (!reserved.isEmpty() && sparePartRepository.decrementStock(reserved) != reserved.size()) {
+            throw new IllegalStateException("Spare parts could not be reserved, stock changed concurrently");
+        }
+
+        // The bulk updates detached the locked copies; mirror the new stock levels and versions onto the ones handed back
+        return reserved.stream()
+                .map(locked::get)
+                .peek(part -> {
+                    int releasedToo = released.contains(part.getId()) ? 1 : 0;
+                    part.setQuantity(part.getQuantity() + releasedToo - 1);
+                    part.setVersion(part.getVersion() + releasedToo + 1);
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // Locks the parts in ID order and returns them managed, for callers that adjust stock in memory and let JDBC batching flush it
+    @Transactional
+    public Map<Long, SparePart> lockParts(Collection<Long> partIds) {
+        if (partIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> locked = Set.copyOf(partIds);
+        AfterCommit.run(() -> invalidate(locked));
+        return sparePartRepository.lockAllByIdInOrder(new TreeSet<>(partIds)).stream()
+                .collect(Collectors.toMap(SparePart::getId, Function.identity()));
+    }
+
+    // Writes read the row itself rather than the shared cached instance
     private SparePart findSparePartOrThrow(Long id) {
         return sparePartRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Spare part with ID " + id + " not found"));
     }
-}
\ No newline at end of file
+
+    private void invalidate(Set<Long> ids) {
+        sparePartsById.invalidateAll(ids);
+        sparePartPages.invalidateAll();
+    }
+}
@@ -0,0 +1,102 @@
+package com.tesla.bikeservices.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.tesla.bikeservices.controller.ServiceTypeController;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.service.ServiceTypeService;
+
+@WebMvcTest(ServiceTypeController.class)
+@Import(BinaryFormatConfig.class)
+class BinaryFormatConfigTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ServiceTypeService serviceTypeService;
+
+    private ServiceType oilChange;
+
+    @BeforeEach
+    void setUp() {
+        oilChange = new ServiceType();
+        oilChange.setId(1L);
+        oilChange.setName("Oil Change");
+        oilChange.setEstimatedDurationMinutes(30);
+        oilChange.setCost(50.0);
+        when(serviceTypeService.getAllServiceTypes(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(oilChange), PageRequest.of(0, 10), 1));
+    }
+
+    @Test
+    void testGetAllServiceTypes_NegotiatesCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/service-types").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode response = new CBORMapper().readTree(body);
+        assertEquals("Oil Change", response.at("/data/content/0/name").asText());
+        assertEquals(1, response.at("/pagination/totalElements").asLong());
+        // Binary formats write the page as its content only
+        assertTrue(response.at("/data/pageable").isMissingNode());
+        // Boot's Jackson settings carry over: timestamps stay ISO-8601 strings rather than arrays
+        assertTrue(response.get("timestamp").isTextual());
+    }
+
+    @Test
+    void testCreateServiceType_ReadsAndWritesSmile() throws Exception {
+        when(serviceTypeService.createServiceType(any(ServiceType.class))).thenReturn(oilChange);
+        SmileMapper smileMapper = new SmileMapper();
+        byte[] request = smileMapper.writeValueAsBytes(Map.of("name", "Oil Change", "estimatedDurationMinutes", 30));
+
+        byte[] body = mockMvc.perform(post("/api/service-types").contentType(SMILE).accept(SMILE).content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(1, smileMapper.readTree(body).at("/data/id").asLong());
+    }
+
+    @Test
+    void testGetAllServiceTypes_JsonKeepsThePageShape() throws Exception {
+        mockMvc.perform(get("/api/service-types"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.content[0].name").value("Oil Change"))
+                .andExpect(jsonPath("$.data.totalElements").value(1))
+                .andExpect(jsonPath("$.data.totalPages").value(1))
+                .andExpect(jsonPath("$.data.number").value(0))
+                .andExpect(jsonPath("$.data.size").value(10))
+                .andExpect(jsonPath("$.pagination.totalPages").value(1));
+    }
+}
@@ -0,0 +1,92 @@
+package com.tesla.bikeservices.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Every repository call runs in its own persistence context, so repeated reads can only be served by the second-level cache
+@DataJpaTest
+@ActiveProfiles("l2cache")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        sparePartRepository.deleteAllInBatch();
+        serviceTypeRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testFindById_ServedFromEntityRegions() {
+        Customer customer = new Customer();
+        customer.setName("John Doe");
+        customer.setEmail("john@example.com");
+        customer.setPhone("1234567890");
+        customer.setBikeModel("Tesla Bike X");
+        Long customerId = customerRepository.save(customer).getId();
+        ServiceType serviceType = new ServiceType();
+        serviceType.setName("Oil Change");
+        serviceType.setEstimatedDurationMinutes(30);
+        Long serviceTypeId = serviceTypeRepository.save(serviceType).getId();
+        SparePart sparePart = new SparePart();
+        sparePart.setPartName("Oil Filter");
+        sparePart.setPartNumber("OF-123");
+        sparePart.setQuantity(5);
+        sparePart.setPrice(15.0);
+        Long sparePartId = sparePartRepository.save(sparePart).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Inserted rows are cached on commit, so not even the first read reaches the database
+        for (int i = 0; i < 2; i++) {
+            assertEquals("John Doe", customerRepository.findById(customerId).orElseThrow().getName());
+            assertEquals("Oil Change", serviceTypeRepository.findById(serviceTypeId).orElseThrow().getName());
+            assertEquals(5, sparePartRepository.findById(sparePartId).orElseThrow().getQuantity());
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics("customers").getHitCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics("serviceTypes").getHitCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics("spareParts").getHitCount());
+
+        // Bulk stock updates bypass the cached state, so they evict the region instead of leaving it stale
+        new TransactionTemplate(transactionManager).execute(status -> sparePartRepository.decrementStock(List.of(sparePartId)));
+        assertEquals(4, sparePartRepository.findById(sparePartId).orElseThrow().getQuantity());
+    }
+}
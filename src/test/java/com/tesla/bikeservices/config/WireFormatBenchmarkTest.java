@@ -0,0 +1,130 @@
+package com.tesla.bikeservices.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.response.ApiResponse;
+import com.tesla.bikeservices.response.ApiResponseSerializer;
+
+/**
+ * Encodes a page of fully populated bookings in each wire format, logging encode time and payload size. JSON
+ * serializes the envelope as a plain bean, Page internals included; the binary formats stream it through
+ * ApiResponseSerializer, the way their converters are configured. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class WireFormatBenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(WireFormatBenchmarkTest.class);
+    private static final int PAGE_SIZE = 100;
+    private static final int RUNS = 2_000;
+
+    @Test
+    void benchmarkBookingPage() throws JsonProcessingException {
+        ApiResponse<Page<ServiceBooking>> response = bookingPage();
+        long jsonBytes = measure("json", mapper().build(), response);
+        long cborBytes = measure("cbor", binary(new CBORFactory()), response);
+        long smileBytes = measure("smile", binary(new SmileFactory()), response);
+        assertTrue(cborBytes < jsonBytes && smileBytes < jsonBytes);
+    }
+
+    // The settings Boot applies to its own builder that matter here
+    private static Jackson2ObjectMapperBuilder mapper() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    // As BinaryFormatConfig sets up the CBOR and Smile converters
+    private static ObjectMapper binary(JsonFactory factory) {
+        return mapper().factory(factory).modulesToInstall(ApiResponseSerializer.module()).build();
+    }
+
+    private static long measure(String format, ObjectMapper mapper, Object value) throws JsonProcessingException {
+        long bytes = mapper.writeValueAsBytes(value).length;
+        for (int i = 0; i < RUNS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        double micros = (System.nanoTime() - startedAt) / 1_000.0 / RUNS;
+        logger.info("{} bookings as {}: {} bytes, {} us per encode", PAGE_SIZE, format, bytes, String.format("%.1f", micros));
+        return bytes;
+    }
+
+    private static ApiResponse<Page<ServiceBooking>> bookingPage() {
+        ServiceType serviceType = new ServiceType();
+        serviceType.setId(1L);
+        serviceType.setName("Full Service");
+        serviceType.setEstimatedDurationMinutes(90);
+        serviceType.setCost(120.0);
+        serviceType.setDescription("Brakes, drivetrain, tyres and a firmware update");
+        serviceType.setVersion(0L);
+        SparePart brakePads = new SparePart();
+        brakePads.setId(1L);
+        brakePads.setPartName("Brake Pads");
+        brakePads.setPartNumber("BP-456");
+        brakePads.setQuantity(40);
+        brakePads.setPrice(25.0);
+        brakePads.setVersion(3L);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+        List<ServiceBooking> bookings = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Customer customer = new Customer();
+            customer.setId(i + 1L);
+            customer.setName("Customer " + i);
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setPhone("+1555000" + i);
+            customer.setBikeModel("Tesla Bike X");
+            customer.setCreatedAt(start.minusDays(i));
+            customer.setVersion(0L);
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setId(i + 1L);
+            slot.setTechnician("Tech" + (i % 10));
+            slot.setStartTime(start.plusHours(i));
+            slot.setEndTime(start.plusHours(i + 1));
+            slot.setAvailable(false);
+            slot.setVersion(1L);
+            ServiceBooking booking = new ServiceBooking();
+            booking.setId(i + 1L);
+            booking.setCustomer(customer);
+            booking.setServiceType(serviceType);
+            booking.setAppointmentSlot(slot);
+            booking.setStatus("PENDING");
+            booking.setPriority("HIGH");
+            booking.setTechnician(slot.getTechnician());
+            booking.setSpareParts(List.of(brakePads));
+            booking.setNotes("Squeaking rear brake, check pads and rotor");
+            booking.setCreatedAt(start.minusDays(1));
+            booking.setVersion(0L);
+            bookings.add(booking);
+        }
+        Page<ServiceBooking> page = new PageImpl<>(bookings, PageRequest.of(0, PAGE_SIZE), 10_000);
+        ApiResponse.Pagination pagination = new ApiResponse.Pagination(0, PAGE_SIZE, page.getTotalElements(), page.getTotalPages());
+        return ApiResponse.successPaginated("Bookings retrieved successfully", page, pagination);
+    }
+}
@@ -5,25 +5,40 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.exception.PreconditionFailedException;
+import com.tesla.bikeservices.repository.FieldSelection;
+import com.tesla.bikeservices.repository.IdempotencyRecordRepository;
+import com.tesla.bikeservices.service.CustomerImportService;
 import com.tesla.bikeservices.service.CustomerService;
+import com.tesla.bikeservices.service.ExportService;
+import com.tesla.bikeservices.service.IdempotencyService;
 
 @WebMvcTest( CustomerController.class)
+@Import(IdempotencyService.class)
 class CustomerControllerTest {
 
     @Autowired
@@ -32,6 +47,15 @@ class CustomerControllerTest {
     @MockitoBean
     private CustomerService customerService;
 
+    @MockitoBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockitoBean
+    private ExportService exportService;
+
+    @MockitoBean
+    private CustomerImportService customerImportService;
+
 
     private Customer savedCustomer;
     private Pageable pageable;
@@ -65,7 +89,7 @@ class CustomerControllerTest {
         createdCustomer.setBikeModel("Tesla Bike Y");
         createdCustomer.setCreatedAt(LocalDateTime.of(2025, 7, 16, 15, 30));
 
-        when(customerService.createCustomer(any(Customer.class))).thenReturn(createdCustomer);
+        when(customerService.createCustomer(any(Customer.class))).thenReturn(CompletableFuture.completedFuture(createdCustomer));
 
         String customerJson = "{\"name\":\"Jane Smith\",\"email\":\"jane.smith@example.com\",\"phone\":\"+1987654321\",\"bikeModel\":\"Tesla Bike Y\"}";
 
@@ -108,6 +132,52 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.createdAt").value("2025-07-16T15:00:00"));
     }
 
+    @Test
+    void testGetCustomerById_NotModified() throws Exception {
+        savedCustomer.setVersion(2L);
+        when(customerService.getCustomer(eq(1L))).thenReturn(savedCustomer);
+
+        mockMvc.perform(get("/api/customers/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetCustomerById_SparseFields() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("name", "John Doe");
+        row.put("version", 2L);
+        when(customerService.getCustomer(eq(1L), any(FieldSelection.class))).thenReturn(row);
+
+        mockMvc.perform(get("/api/customers/1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.data.name").value("John Doe"))
+                .andExpect(jsonPath("$.data.email").doesNotExist());
+
+        mockMvc.perform(get("/api/customers/1").param("fields", "name,nameSearch"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown field: nameSearch"));
+    }
+
+    @Test
+    void testUpdateCustomer_PreconditionFailed() throws Exception {
+        when(customerService.updateCustomer(eq(1L), any(Customer.class), eq("\"1\"")))
+                .thenThrow(new PreconditionFailedException("Customer with ID 1 has been modified, reload it and retry", "\"2\""));
+
+        String customerJson = "{\"name\":\"John Doe\",\"email\":\"john.doe@example.com\",\"phone\":\"+1234567890\",\"bikeModel\":\"Tesla Bike X\"}";
+
+        mockMvc.perform(put("/api/customers/1")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(customerJson))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.status").value("error"));
+    }
+
 	/*
 	 * @Test void testGetCustomerById_NotFound() throws Exception {
 	 * when(customerService.getCustomer(eq(999L))) .thenThrow(new
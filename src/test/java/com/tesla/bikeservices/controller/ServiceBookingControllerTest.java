@@ -5,6 +5,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -13,6 +14,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -25,15 +27,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.dto.BookingSummary;
 import com.tesla.bikeservices.dto.ServiceBookingDTO;
 import com.tesla.bikeservices.entity.AppointmentSlot;
 import com.tesla.bikeservices.entity.Customer;
@@ -41,11 +46,18 @@ import com.tesla.bikeservices.entity.ServiceBooking;
 
 import com.tesla.bikeservices.entity.ServiceType;
 import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.exception.PreconditionFailedException;
+import com.tesla.bikeservices.repository.IdempotencyRecordRepository;
+import com.tesla.bikeservices.service.BookingLanes;
+import com.tesla.bikeservices.service.ExportService;
+import com.tesla.bikeservices.service.IdempotencyService;
 import com.tesla.bikeservices.service.ServiceBookingService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 
 @WebMvcTest( ServiceBookingController.class)
+@Import({ IdempotencyService.class, BookingLanes.class, SimpleMeterRegistry.class })
 class ServiceBookingControllerTest {
 
     @Autowired
@@ -54,6 +66,12 @@ class ServiceBookingControllerTest {
     @MockitoBean
     private ServiceBookingService serviceBookingService;
 
+    @MockitoBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockitoBean
+    private ExportService exportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -142,6 +160,23 @@ class ServiceBookingControllerTest {
                 .andExpect(jsonPath("$.createdAt").exists());
     }
 
+    @Test
+    void testCreateBooking_IdempotentReplay() throws Exception {
+        when(serviceBookingService.createBooking(any(ServiceBookingDTO.class))).thenReturn(savedBooking);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/bookings")
+                    .header(IdempotencyService.HEADER, "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(bookingDTO)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.message").value("Booking created successfully"))
+                    .andExpect(jsonPath("$.data.id").value(savedBooking.getId()));
+        }
+
+        verify(serviceBookingService, times(1)).createBooking(any(ServiceBookingDTO.class));
+    }
+
     @Test
     void testCreateBooking_SlotNotAvailable() throws Exception {
         when(serviceBookingService.createBooking(any(ServiceBookingDTO.class)))
@@ -201,7 +236,7 @@ class ServiceBookingControllerTest {
 
     @Test
     void testGetAllBookings_Success() throws Exception {
-        Page<ServiceBooking> page = new PageImpl<>(Arrays.asList(savedBooking), pageable, 1);
+        Page<BookingSummary> page = new PageImpl<>(Arrays.asList(BookingSummary.from(savedBooking)), pageable, 1);
         when(serviceBookingService.getAllBookings(any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/api/bookings")
@@ -216,7 +251,7 @@ class ServiceBookingControllerTest {
 
     @Test
     void testGetAllBookings_EmptyPage() throws Exception {
-        Page<ServiceBooking> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+        Page<BookingSummary> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
         when(serviceBookingService.getAllBookings(any(Pageable.class))).thenReturn(emptyPage);
 
         mockMvc.perform(get("/api/bookings")
@@ -230,7 +265,7 @@ class ServiceBookingControllerTest {
     @Test
     void testGetBookingsByCustomer_Success() throws Exception {
         when(serviceBookingService.getBookingsByCustomer(eq(1L)))
-                .thenReturn(Arrays.asList(savedBooking));
+                .thenReturn(Arrays.asList(BookingSummary.from(savedBooking)));
 
         mockMvc.perform(get("/api/bookings/customer/1"))
                 .andExpect(status().isOk())
@@ -251,7 +286,7 @@ class ServiceBookingControllerTest {
     @Test
     void testGetBookingsByStatus_Success() throws Exception {
         when(serviceBookingService.getBookingsByStatus(eq("PENDING")))
-                .thenReturn(Arrays.asList(savedBooking));
+                .thenReturn(Arrays.asList(BookingSummary.from(savedBooking)));
 
         mockMvc.perform(get("/api/bookings/status/PENDING"))
                 .andExpect(status().isOk())
@@ -284,7 +319,7 @@ class ServiceBookingControllerTest {
         updatedBooking.setStatusHistory(Arrays.asList("Updated: IN_PROGRESS at " + LocalDateTime.now()));
         updatedBooking.setCreatedAt(LocalDateTime.now());
 
-        when(serviceBookingService.updateBooking(eq(1L), any(ServiceBookingDTO.class)))
+        when(serviceBookingService.updateBooking(eq(1L), any(ServiceBookingDTO.class), isNull()))
                 .thenReturn(updatedBooking);
 
         ServiceBookingDTO updatedDTO = new ServiceBookingDTO();
@@ -309,7 +344,7 @@ class ServiceBookingControllerTest {
 
     @Test
     void testUpdateBooking_NotFound() throws Exception {
-        when(serviceBookingService.updateBooking(eq(999L), any(ServiceBookingDTO.class)))
+        when(serviceBookingService.updateBooking(eq(999L), any(ServiceBookingDTO.class), isNull()))
                 .thenThrow(new EntityNotFoundException("Booking with ID 999 not found"));
 
         mockMvc.perform(put("/api/bookings/999")
@@ -321,7 +356,7 @@ class ServiceBookingControllerTest {
 
     @Test
     void testUpdateBooking_SlotNotAvailable() throws Exception {
-        when(serviceBookingService.updateBooking(eq(1L), any(ServiceBookingDTO.class)))
+        when(serviceBookingService.updateBooking(eq(1L), any(ServiceBookingDTO.class), isNull()))
                 .thenThrow(new IllegalStateException("Selected appointment slot is not available"));
 
         mockMvc.perform(put("/api/bookings/1")
@@ -331,6 +366,33 @@ class ServiceBookingControllerTest {
                 .andExpect(content().string("Selected appointment slot is not available"));
     }
 
+    @Test
+    void testUpdateBooking_PreconditionFailed() throws Exception {
+        when(serviceBookingService.updateBooking(eq(1L), any(ServiceBookingDTO.class), eq("\"0.0.0.1.0\"")))
+                .thenThrow(new PreconditionFailedException("Booking with ID 1 has been modified, reload it and retry",
+                        "\"1.0.0.1.0\""));
+
+        mockMvc.perform(put("/api/bookings/1")
+                .header(HttpHeaders.IF_MATCH, "\"0.0.0.1.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookingDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0.0.1.0\""))
+                .andExpect(jsonPath("$.status").value("error"));
+    }
+
+    @Test
+    void testGetBooking_NotModified() throws Exception {
+        when(serviceBookingService.getBookingTag(eq(1L))).thenReturn("\"1.0.0.1.0\"");
+
+        mockMvc.perform(get("/api/bookings/1").header(HttpHeaders.IF_NONE_MATCH, "\"1.0.0.1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0.0.1.0\""))
+                .andExpect(content().string(""));
+        // The tag comes from a versions-only query; the booking itself is never loaded
+        verify(serviceBookingService, never()).getBooking(any());
+    }
+
     @Test
     void testDeleteBooking_Success() throws Exception {
         doNothing().when(serviceBookingService).deleteBooking(eq(1L));
@@ -352,7 +414,7 @@ class ServiceBookingControllerTest {
 
     @Test
     void testSearchBookingsByCriteria_Success() throws Exception {
-        Page<ServiceBooking> page = new PageImpl<>(Arrays.asList(savedBooking), pageable, 1);
+        Page<BookingSummary> page = new PageImpl<>(Arrays.asList(BookingSummary.from(savedBooking)), pageable, 1);
         when(serviceBookingService.searchBookingsByCriteria(
                 eq("PENDING"), eq("Tech"), eq("John"), any(Pageable.class)))
                 .thenReturn(page);
@@ -387,7 +449,7 @@ class ServiceBookingControllerTest {
 
     @Test
     void testSearchBookingsByCriteria_EmptyResult() throws Exception {
-        Page<ServiceBooking> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+        Page<BookingSummary> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
         when(serviceBookingService.searchBookingsByCriteria(
                 eq("COMPLETED"), eq("Tech"), eq("John"), any(Pageable.class)))
                 .thenReturn(emptyPage);
@@ -0,0 +1,338 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tesla.bikeservices.dto.SlotWindow;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Runs without the per-test transaction: the availability index only applies committed changes
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentSlotServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AppointmentSlotService appointmentSlotService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentSlotService = new AppointmentSlotService(appointmentSlotRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentSlotRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testGetAvailableSlots_FallsBackToDatabaseBeforeIndexIsBuilt() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+
+        List<AppointmentSlot> slots = appointmentSlotService.getAvailableSlots(DAY.minusHours(1), DAY.plusHours(1));
+
+        assertEquals(List.of(slot.getId()), ids(slots));
+    }
+
+    @Test
+    void testGetAvailableSlots_DayBucketsServeOverlappingWindowsUntilAvailabilityChanges() {
+        AppointmentSlot first = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        AppointmentSlot second = appointmentSlotRepository.save(slot("Tech2", DAY.plusDays(1), true));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // One query per day touched, then overlapping windows are assembled from the cached days
+        statistics.clear();
+        assertEquals(List.of(first.getId(), second.getId()), ids(appointmentSlotService.getAvailableSlots(DAY, DAY.plusDays(1))));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of(second.getId()),
+                ids(appointmentSlotService.getAvailableSlots(DAY.plusHours(1), DAY.plusDays(1).plusHours(1))));
+        assertEquals(List.of(first.getId()),
+                ids(appointmentSlotService.getAvailableSlotsByTechnician("Tech1", DAY.minusHours(1), DAY.plusDays(1))));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // Claiming the first slot reloads only its own day
+        appointmentSlotService.claimSlot(first.getId());
+        statistics.clear();
+        assertEquals(List.of(second.getId()), ids(appointmentSlotService.getAvailableSlots(DAY, DAY.plusDays(1))));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        appointmentSlotService.releaseSlot(first.getId());
+        assertEquals(List.of(first.getId(), second.getId()), ids(appointmentSlotService.getAvailableSlots(DAY, DAY.plusDays(1))));
+    }
+
+    @Test
+    void testGetAvailableSlots_AnsweredFromIndexWithoutQueries() {
+        AppointmentSlot early = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        appointmentSlotRepository.save(slot("Tech1", DAY.plusHours(1), false));
+        AppointmentSlot other = appointmentSlotRepository.save(slot("Tech2", DAY.plusMinutes(30), true));
+        appointmentSlotRepository.save(slot("Tech1", DAY.plusDays(2), true));
+        appointmentSlotService.buildAvailabilityIndex();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<AppointmentSlot> slots = appointmentSlotService.getAvailableSlots(DAY, DAY.plusDays(1));
+        List<AppointmentSlot> tech1Slots = appointmentSlotService.getAvailableSlotsByTechnician("Tech1", DAY, DAY.plusDays(1));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(List.of(early.getId(), other.getId()), ids(slots));
+        assertEquals(List.of(early.getId()), ids(tech1Slots));
+        assertEquals(ids(appointmentSlotRepository.findByStartTimeBetweenAndIsAvailableTrue(DAY, DAY.plusDays(1))), ids(slots));
+    }
+
+    @Test
+    void testIndex_FollowsCreateClaimReleaseUpdateAndDelete() {
+        appointmentSlotService.buildAvailabilityIndex();
+        AppointmentSlot first = appointmentSlotService.createAppointmentSlot(slot("Tech1", DAY.plusHours(2), true));
+        AppointmentSlot second = appointmentSlotService.createAppointmentSlot(slot("Tech1", DAY, true));
+        assertEquals(List.of(second.getId(), first.getId()), ids(available()));
+
+        appointmentSlotService.claimSlot(second.getId());
+        assertEquals(List.of(first.getId()), ids(available()));
+
+        appointmentSlotService.releaseSlot(second.getId());
+        assertEquals(List.of(second.getId(), first.getId()), ids(available()));
+
+        AppointmentSlot moved = slot("Tech2", DAY.plusHours(4), true);
+        appointmentSlotService.updateAppointmentSlot(second.getId(), moved);
+        assertEquals(List.of(first.getId(), second.getId()), ids(available()));
+        assertTrue(appointmentSlotService.getAvailableSlotsByTechnician("Tech1", DAY, DAY.plusHours(3)).stream()
+                .noneMatch(slot -> slot.getId().equals(second.getId())));
+
+        appointmentSlotService.deleteAppointmentSlot(first.getId());
+        assertEquals(List.of(second.getId()), ids(available()));
+    }
+
+    @Test
+    void testIndex_DropsChangesOlderThanTheIndexedVersion() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        SlotAvailabilityIndex index = new SlotAvailabilityIndex();
+        index.rebuild(() -> List.of(slot), () -> 1, () -> 1);
+
+        // A claim (version 1) whose commit callback runs after the release that followed it (version 2)
+        index.setAvailable(slot.getId(), true, 2L);
+        index.setAvailable(slot.getId(), false, 1L);
+        assertEquals(List.of(slot.getId()), ids(index.findAvailable(DAY, DAY.plusHours(1))));
+
+        index.remove(slot.getId());
+        index.put(slot);
+        assertTrue(index.findAvailable(DAY, DAY.plusHours(1)).isEmpty());
+    }
+
+    @Test
+    void testIndex_RebuildServesReadsAndKeepsChangesMadeWhileLoading() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        SlotAvailabilityIndex index = new SlotAvailabilityIndex();
+        index.rebuild(() -> List.of(slot), () -> 1, () -> 1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+
+        try {
+            boolean ready = index.rebuild(() -> {
+                // Another thread still reads the current contents while the slots load
+                Future<List<AppointmentSlot>> read = reader.submit(() -> index.findAvailable(DAY, DAY.plusHours(1)));
+                assertEquals(List.of(slot.getId()), ids(getUnchecked(read)));
+                // Claimed after the load read the slot (version 1), then a stale callback (version 0) arrives
+                index.setAvailable(slot.getId(), false, slot.getVersion() + 1);
+                index.setAvailable(slot.getId(), true, slot.getVersion());
+                return List.of(slot);
+            }, () -> 1, () -> 0);
+
+            assertTrue(ready);
+            assertTrue(index.findAvailable(DAY, DAY.plusHours(1)).isEmpty());
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    void testIndex_ServesSlotVersions() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        appointmentSlotService.buildAvailabilityIndex();
+
+        appointmentSlotService.releaseSlot(slot.getId());
+
+        assertEquals(appointmentSlotRepository.findById(slot.getId()).get().getVersion(), available().get(0).getVersion());
+    }
+
+    @Test
+    void testDayCache_DropsBucketsLoadedAcrossAnInvalidation() {
+        SlotDayCache dayCache = new SlotDayCache(31, Duration.ofMinutes(1));
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        AtomicInteger loads = new AtomicInteger();
+
+        // The slot is claimed and invalidated while its day is being read, so the loaded bucket is already stale
+        List<AppointmentSlot> stale = dayCache.findAvailable(null, DAY, DAY.plusHours(1), day -> {
+            loads.incrementAndGet();
+            List<AppointmentSlot> slots = List.of(slot);
+            dayCache.invalidate(slot.getId());
+            return slots;
+        });
+        assertEquals(List.of(slot.getId()), ids(stale));
+
+        AppointmentSlot claimed = slot("Tech1", DAY, false);
+        claimed.setId(slot.getId());
+        assertTrue(dayCache.findAvailable(null, DAY, DAY.plusHours(1), day -> {
+            loads.incrementAndGet();
+            return List.of(claimed);
+        }).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testUpdateAppointmentSlot_KeepsAvailability() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        appointmentSlotService.buildAvailabilityIndex();
+
+        appointmentSlotService.updateAppointmentSlot(slot.getId(), slot("Tech1", DAY.plusHours(1), false));
+
+        assertTrue(appointmentSlotRepository.findById(slot.getId()).get().isAvailable());
+        assertEquals(List.of(slot.getId()), ids(available()));
+    }
+
+    @Test
+    void testReconcileAvailabilityIndex_RebuildsAfterChangesItMissed() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        appointmentSlotService.buildAvailabilityIndex();
+
+        // Booked behind the service's back, so no commit callback reaches the index
+        appointmentSlotRepository.claimSlot(slot.getId());
+        assertEquals(List.of(slot.getId()), ids(available()));
+
+        appointmentSlotService.reconcileAvailabilityIndex();
+        assertTrue(available().isEmpty());
+    }
+
+    @Test
+    void testGetAvailableSlotsByTechnician_ExcludesBookedSlots() {
+        AppointmentSlot booked = appointmentSlotRepository.save(slot("Tech1", DAY, false));
+
+        assertFalse(ids(appointmentSlotService.getAvailableSlotsByTechnician("Tech1", DAY, DAY.plusHours(1)))
+                .contains(booked.getId()));
+        appointmentSlotService.buildAvailabilityIndex();
+        assertFalse(ids(appointmentSlotService.getAvailableSlotsByTechnician("Tech1", DAY, DAY.plusHours(1)))
+                .contains(booked.getId()));
+    }
+
+    @Test
+    void testCreateAppointmentSlot_RejectsSlotsStartingEarlierThatOverlap() {
+        appointmentSlotRepository.save(longSlot("Tech1", DAY, 90));
+
+        // Falls back to the overlap query until the index is built, then answers from memory
+        assertOverlapRules();
+        appointmentSlotService.buildAvailabilityIndex();
+        assertOverlapRules();
+    }
+
+    @Test
+    void testUpdateAppointmentSlot_IgnoresItsOwnInterval() {
+        AppointmentSlot slot = appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        appointmentSlotService.buildAvailabilityIndex();
+
+        AppointmentSlot extended = slot("Tech1", DAY, true);
+        extended.setEndTime(DAY.plusMinutes(45));
+        appointmentSlotService.updateAppointmentSlot(slot.getId(), extended);
+
+        assertThrows(IllegalStateException.class,
+                () -> appointmentSlotService.createAppointmentSlot(slot("Tech1", DAY.plusMinutes(30), true)));
+    }
+
+    @Test
+    void testFindEarliestWindows_MergesContiguousFreeSlotsAcrossTechnicians() {
+        appointmentSlotRepository.save(slot("Tech1", DAY, true));
+        appointmentSlotRepository.save(slot("Tech1", DAY.plusMinutes(30), false));
+        AppointmentSlot tech1First = appointmentSlotRepository.save(slot("Tech1", DAY.plusHours(1), true));
+        AppointmentSlot tech1Second = appointmentSlotRepository.save(slot("Tech1", DAY.plusMinutes(90), true));
+        appointmentSlotRepository.save(slot("Tech1", DAY.plusHours(2), true));
+        AppointmentSlot tech2First = appointmentSlotRepository.save(slot("Tech2", DAY.plusMinutes(30), true));
+        AppointmentSlot tech2Second = appointmentSlotRepository.save(slot("Tech2", DAY.plusHours(1), true));
+        appointmentSlotRepository.save(slot("Tech3", DAY.plusHours(3), true));
+
+        for (boolean indexed : new boolean[] {false, true}) {
+            if (indexed) {
+                appointmentSlotService.buildAvailabilityIndex();
+            }
+            List<SlotWindow> windows = appointmentSlotService.findEarliestWindows(Duration.ofHours(1), DAY, DAY.plusDays(1), 5);
+
+            assertEquals(2, windows.size());
+            assertEquals("Tech2", windows.get(0).getTechnician());
+            assertEquals(DAY.plusMinutes(30), windows.get(0).getStartTime());
+            assertEquals(DAY.plusMinutes(90), windows.get(0).getEndTime());
+            assertEquals(List.of(tech2First.getId(), tech2Second.getId()), windows.get(0).getSlotIds());
+            assertEquals(List.of(tech1First.getId(), tech1Second.getId()), windows.get(1).getSlotIds());
+            assertEquals(1, appointmentSlotService.findEarliestWindows(Duration.ofHours(1), DAY, DAY.plusDays(1), 1).size());
+            assertTrue(appointmentSlotService.findEarliestWindows(Duration.ofHours(1), DAY, DAY.plusMinutes(10), 5).isEmpty());
+        }
+    }
+
+    // An existing Tech1 slot runs 09:00-10:30
+    private void assertOverlapRules() {
+        assertThrows(IllegalStateException.class,
+                () -> appointmentSlotService.createAppointmentSlot(slot("Tech1", DAY.plusHours(1), true)));
+        assertThrows(IllegalStateException.class,
+                () -> appointmentSlotService.createAppointmentSlot(longSlot("Tech1", DAY.minusHours(1), 240)));
+        AppointmentSlot touching = appointmentSlotService.createAppointmentSlot(slot("Tech1", DAY.minusMinutes(30), true));
+        AppointmentSlot otherTechnician = appointmentSlotService.createAppointmentSlot(slot("Tech2", DAY.plusHours(1), true));
+        appointmentSlotService.deleteAppointmentSlot(touching.getId());
+        appointmentSlotService.deleteAppointmentSlot(otherTechnician.getId());
+    }
+
+    private <T> T getUnchecked(Future<T> future) {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<AppointmentSlot> available() {
+        return appointmentSlotService.getAvailableSlots(DAY.minusDays(1), DAY.plusDays(1));
+    }
+
+    private List<Long> ids(List<AppointmentSlot> slots) {
+        return slots.stream().map(AppointmentSlot::getId).toList();
+    }
+
+    private AppointmentSlot longSlot(String technician, LocalDateTime start, int minutes) {
+        AppointmentSlot slot = slot(technician, start, true);
+        slot.setEndTime(start.plusMinutes(minutes));
+        return slot;
+    }
+
+    private AppointmentSlot slot(String technician, LocalDateTime start, boolean available) {
+        AppointmentSlot slot = new AppointmentSlot();
+        slot.setTechnician(technician);
+        slot.setStartTime(start);
+        slot.setEndTime(start.plusMinutes(30));
+        slot.setAvailable(available);
+        return slot;
+    }
+}
@@ -0,0 +1,212 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.tesla.bikeservices.exception.LaneSaturatedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BookingLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private BookingLanes bookingLanes;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (bookingLanes != null) {
+            bookingLanes.shutdown();
+        }
+    }
+
+    @Test
+    void testExecute_DisabledRunsOnCallerWithoutResolvingKey() {
+        bookingLanes = new BookingLanes(meterRegistry, false, 4, 10);
+        Thread caller = Thread.currentThread();
+
+        Thread runner = bookingLanes.execute(() -> {
+            throw new AssertionError("Key must not be resolved");
+        }, Thread::currentThread);
+
+        assertEquals(caller, runner);
+    }
+
+    @Test
+    void testExecute_SerializesWritesForOneTechnician() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 4, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(callers.submit(() -> bookingLanes.run(() -> "Tech1", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(2);
+                running.decrementAndGet();
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(40, meterRegistry.get("booking.lane.wait").timer().count());
+    }
+
+    @Test
+    void testExecute_DifferentLanesRunInParallel() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 4, 100);
+        // Both writes must be running at the same time to pass the barrier
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        String first = "Tech1";
+        String second = technicianOnAnotherLane(first, 4);
+
+        Future<Integer> a = callers.submit(() -> bookingLanes.execute(() -> first, () -> awaitBarrier(barrier)));
+        Future<Integer> b = callers.submit(() -> bookingLanes.execute(() -> second, () -> awaitBarrier(barrier)));
+
+        assertTrue(a.get(5, TimeUnit.SECONDS) >= 0);
+        assertTrue(b.get(5, TimeUnit.SECONDS) >= 0);
+    }
+
+    @Test
+    void testExecute_TwoTechniciansHoldBothLanes() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 4, 100);
+        String first = "Tech1";
+        String second = technicianOnAnotherLane(first, 4);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger moving = new AtomicInteger();
+
+        Future<?> move = callers.submit(() -> bookingLanes.execute(() -> first, () -> second, () -> {
+            moving.incrementAndGet();
+            running.countDown();
+            await(release);
+            return moving.decrementAndGet();
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<Integer> onFirst = callers.submit(() -> bookingLanes.execute(() -> first, moving::get));
+        Future<Integer> onSecond = callers.submit(() -> bookingLanes.execute(() -> second, moving::get));
+        sleep(50);
+        release.countDown();
+
+        move.get(5, TimeUnit.SECONDS);
+        assertEquals(0, onFirst.get(5, TimeUnit.SECONDS));
+        assertEquals(0, onSecond.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExecute_OpposingTwoTechnicianWritesDoNotDeadlock() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 4, 100);
+        String first = "Tech1";
+        String second = technicianOnAnotherLane(first, 4);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String from = i % 2 == 0 ? first : second;
+            String to = i % 2 == 0 ? second : first;
+            futures.add(callers.submit(() -> bookingLanes.execute(() -> from, () -> to, () -> {
+                sleep(1);
+                return null;
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testExecute_PropagatesWriteExceptionsUnwrapped() {
+        bookingLanes = new BookingLanes(meterRegistry, true, 2, 10);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> bookingLanes.execute(() -> "Tech1", () -> {
+            throw new IllegalStateException("Selected appointment slot is not available");
+        }));
+        assertEquals("Selected appointment slot is not available", e.getMessage());
+    }
+
+    @Test
+    void testExecute_FullQueueRejectsWithRetryAfter() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 1, 1, Duration.ofSeconds(3));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // One write occupies the lane and a second fills its queue
+        Future<?> first = callers.submit(() -> bookingLanes.run(() -> "Tech1", () -> {
+            running.countDown();
+            await(release);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<?> second = callers.submit(() -> bookingLanes.run(() -> "Tech1", () -> { }));
+        while (meterRegistry.get("booking.lane.queue.depth").gauge().value() < 1) {
+            sleep(1);
+        }
+
+        LaneSaturatedException e = assertThrows(LaneSaturatedException.class,
+                () -> bookingLanes.run(() -> "Tech1", () -> { }));
+        assertEquals(Duration.ofSeconds(3), e.getRetryAfter());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testExecute_ExposesQueueDepthPerLane() {
+        bookingLanes = new BookingLanes(meterRegistry, true, 3, 10);
+
+        assertEquals(3, meterRegistry.get("booking.lane.queue.depth").gauges().size());
+        assertEquals(0.0, meterRegistry.get("booking.lane.queue.depth").tag("lane", "0").gauge().value());
+    }
+
+    private String technicianOnAnotherLane(String technician, int lanes) {
+        int lane = Math.floorMod(technician.hashCode(), lanes);
+        for (int i = 0; ; i++) {
+            String candidate = "Tech" + i;
+            if (Math.floorMod(candidate.hashCode(), lanes) != lane) {
+                assertNotEquals(technician, candidate);
+                return candidate;
+            }
+        }
+    }
+
+    private int awaitBarrier(CyclicBarrier barrier) {
+        try {
+            return barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
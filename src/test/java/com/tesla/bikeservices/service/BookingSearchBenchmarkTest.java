@@ -0,0 +1,162 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tesla.bikeservices.dto.PageCursor;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares the old ORed booking search with the dynamic, index-backed one on large tables, logging timings and
+ * H2 query plans. Excluded from the default build; run with {@code mvn test -Pbenchmark}, choosing the table
+ * sizes with {@code -Dbenchmark.sizes=10000,100000,1000000}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingSearchBenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(BookingSearchBenchmarkTest.class);
+    private static final int INSERT_BATCH = 10_000;
+    private static final int CUSTOMERS = 1_000;
+    private static final int TECHNICIANS = 200;
+    private static final int RUNS = 20;
+    private static final List<String> STATUSES = List.of("PENDING", "IN_PROGRESS", "COMPLETED", "CANCELLED");
+
+    // The query findByCriteria ran before: every criterion ORed and lower-cased, so nothing can use an index
+    private static final String LEGACY_SEARCH = "SELECT b.id FROM service_booking b LEFT JOIN customer c ON c.id = b.customer_id "
+            + "WHERE b.status = ? OR LOWER(b.technician) LIKE LOWER(CONCAT(?, '%')) "
+            + "OR LOWER(c.name) LIKE LOWER(CONCAT(?, '%')) OR LOWER(c.email) LIKE LOWER(CONCAT(?, '%')) "
+            + "ORDER BY b.created_at, b.id LIMIT 10";
+    private static final String LEGACY_COUNT = "SELECT COUNT(*) FROM service_booking b LEFT JOIN customer c ON c.id = b.customer_id "
+            + "WHERE b.status = ? OR LOWER(b.technician) LIKE LOWER(CONCAT(?, '%')) "
+            + "OR LOWER(c.name) LIKE LOWER(CONCAT(?, '%')) OR LOWER(c.email) LIKE LOWER(CONCAT(?, '%'))";
+    private static final String INDEXED_SEARCH = "SELECT b.id FROM service_booking b "
+            + "WHERE b.status = 'COMPLETED' AND b.technician LIKE 'Tech1%' ORDER BY b.status, b.created_at, b.id LIMIT 10";
+
+    @Autowired
+    private ServiceBookingRepository serviceBookingRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        serviceBookingRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void benchmarkCriteriaSearch() {
+        ServiceBookingService serviceBookingService = new ServiceBookingService(serviceBookingRepository,
+                customerRepository, new ServiceTypeService(serviceTypeRepository), new SparePartService(sparePartRepository),
+                new AppointmentSlotService(appointmentSlotRepository),
+                new OptimisticLockRetry(transactionManager, new SimpleMeterRegistry(), 4, 1, 10),
+                new BookingSearchService(serviceBookingRepository, transactionManager, ""));
+        loadCustomers();
+        int loaded = 0;
+        for (int size : sizes()) {
+            loadBookings(loaded, size);
+            loaded = size;
+            jdbcTemplate.execute("ANALYZE");
+
+            // Offset pages pay for a count either way; the cursor form is what index ordering makes cheap
+            double legacy = averageMillis(() -> {
+                assertEquals(10, jdbcTemplate.queryForList(LEGACY_SEARCH, Long.class, "COMPLETED", "Tech1", "customer 1", "customer 1").size());
+                jdbcTemplate.queryForObject(LEGACY_COUNT, Long.class, "COMPLETED", "Tech1", "customer 1", "customer 1");
+            });
+            double paged = averageMillis(() -> assertEquals(10, serviceBookingService
+                    .searchBookingsByCriteria("COMPLETED", "Tech1", "customer 1", PageRequest.of(0, 10)).getNumberOfElements()));
+            double cursor = averageMillis(() -> assertEquals(10, serviceBookingService
+                    .searchBookingsByCriteriaAfter("COMPLETED", "Tech1", "customer 1", PageCursor.FIRST, 10).getNumberOfElements()));
+            logger.info("Booking criteria search over {} rows: legacy OR page+count {} ms, dynamic AND page+count {} ms, "
+                    + "dynamic AND cursor {} ms", size, String.format("%.3f", legacy), String.format("%.3f", paged),
+                    String.format("%.3f", cursor));
+        }
+
+        String legacyPlan = jdbcTemplate.queryForObject("EXPLAIN " + LEGACY_SEARCH.replace("?", "'x'"), String.class);
+        String indexedPlan = jdbcTemplate.queryForObject("EXPLAIN " + INDEXED_SEARCH, String.class);
+        logger.info("Legacy plan:\n{}\nIndexed plan:\n{}", legacyPlan, indexedPlan);
+        assertTrue(indexedPlan.contains("IDX_SERVICE_BOOKING_STATUS_CREATED") && indexedPlan.contains("index sorted"), indexedPlan);
+    }
+
+    private static List<Integer> sizes() {
+        return Arrays.stream(System.getProperty("benchmark.sizes", "10000,100000").split(","))
+                .map(String::trim).map(Integer::valueOf).sorted().toList();
+    }
+
+    private void loadCustomers() {
+        List<Object[]> rows = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String name = "Customer " + i;
+            String email = "c" + i + "@example.com";
+            rows.add(new Object[] {i + 1L, name, email, "+1555" + i, "Tesla Bike X",
+                    Timestamp.valueOf(LocalDateTime.of(2030, 1, 1, 9, 0)), name.toLowerCase(), email, "1555" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customer (id, name, email, phone, bike_model, created_at, "
+                + "name_search, email_search, phone_search) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Plain JDBC batches: going through the entity manager would dominate the run at millions of rows
+    private void loadBookings(int from, int to) {
+        LocalDateTime createdAt = LocalDateTime.of(2030, 1, 1, 9, 0);
+        for (int start = from; start < to; start += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = start; i < Math.min(to, start + INSERT_BATCH); i++) {
+                rows.add(new Object[] {i + 1L, (long) (i % CUSTOMERS) + 1, STATUSES.get(i % STATUSES.size()),
+                        "Tech" + (i % TECHNICIANS), Timestamp.valueOf(createdAt.plusSeconds(i)), 0L});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO service_booking (id, customer_id, status, technician, created_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static double averageMillis(Runnable search) {
+        search.run();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            search.run();
+        }
+        return (System.nanoTime() - startedAt) / 1_000_000.0 / RUNS;
+    }
+}
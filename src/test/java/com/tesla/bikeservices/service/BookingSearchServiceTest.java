@@ -0,0 +1,161 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tesla.bikeservices.dto.BookingSearchHit;
+import com.tesla.bikeservices.dto.ServiceBookingDTO;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Runs without the per-test transaction: the index is only updated once booking writes commit
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingSearchServiceTest {
+
+    @Autowired
+    private ServiceBookingRepository serviceBookingRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookingSearchService bookingSearchService;
+    private ServiceBookingService serviceBookingService;
+    private Customer customer;
+    private ServiceType serviceType;
+    private SparePart brakePads;
+
+    @BeforeEach
+    void setUp() {
+        bookingSearchService = new BookingSearchService(serviceBookingRepository, transactionManager, "");
+        serviceBookingService = new ServiceBookingService(serviceBookingRepository, customerRepository,
+                new ServiceTypeService(serviceTypeRepository), new SparePartService(sparePartRepository),
+                new AppointmentSlotService(appointmentSlotRepository),
+                new OptimisticLockRetry(transactionManager, new SimpleMeterRegistry(), 4, 1, 10), bookingSearchService);
+
+        customer = new Customer();
+        customer.setName("John Doe");
+        customer.setEmail("john@example.com");
+        customer.setPhone("1234567890");
+        customer.setBikeModel("Tesla Bike X");
+        customer = customerRepository.save(customer);
+        serviceType = new ServiceType();
+        serviceType.setName("Drivetrain Tune-up");
+        serviceType.setEstimatedDurationMinutes(60);
+        serviceType = serviceTypeRepository.save(serviceType);
+        brakePads = new SparePart();
+        brakePads.setPartName("Ceramic Brake Pads");
+        brakePads.setPartNumber("BP-100");
+        brakePads.setQuantity(10);
+        brakePads.setPrice(25.0);
+        brakePads = sparePartRepository.save(brakePads);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        serviceBookingRepository.deleteAll();
+        sparePartRepository.deleteAllInBatch();
+        appointmentSlotRepository.deleteAllInBatch();
+        serviceTypeRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+        bookingSearchService.close();
+    }
+
+    @Test
+    void testSearchBookingsByText_RanksPhraseMatchesAndFollowsWrites() {
+        // Arrange
+        Long phrase = book("Loud brake squeal when stopping downhill", List.of());
+        Long apart = book("Squeal from the rear, brake lever feels soft", List.of());
+        Long chain = book("Chain skips under load", List.of(brakePads.getId()));
+
+        // Act & Assert: both terms required, the exact phrase ranks first, stems match
+        assertEquals(List.of(phrase, apart), ids(serviceBookingService.searchBookingsByText("brake squeal", PageRequest.of(0, 10))));
+        assertEquals(List.of(chain), ids(serviceBookingService.searchBookingsByText("chain skipping", PageRequest.of(0, 10))));
+        // Spare part and service type names are searched too
+        assertEquals(List.of(chain), ids(serviceBookingService.searchBookingsByText("ceramic pads", PageRequest.of(0, 10))));
+        assertEquals(3, serviceBookingService.searchBookingsByText("drivetrain", PageRequest.of(0, 10)).getTotalElements());
+
+        Page<BookingSearchHit> secondPage = serviceBookingService.searchBookingsByText("drivetrain", PageRequest.of(1, 2));
+        assertEquals(1, secondPage.getNumberOfElements());
+        assertEquals(2, secondPage.getTotalPages());
+
+        // Updates and deletes reach the index once they commit
+        ServiceBookingDTO update = dto("Brake squeal fixed, chain replaced", List.of());
+        serviceBookingService.updateBooking(chain, update);
+        serviceBookingService.deleteBooking(apart);
+        List<Long> squeals = ids(serviceBookingService.searchBookingsByText("brake squeal", PageRequest.of(0, 10)));
+        assertEquals(2, squeals.size());
+        assertTrue(squeals.containsAll(List.of(phrase, chain)));
+        assertEquals(List.of(), ids(serviceBookingService.searchBookingsByText("ceramic", PageRequest.of(0, 10))));
+
+        // A bulk rebuild gives the same answers
+        assertEquals(2, serviceBookingService.rebuildSearchIndex());
+        assertEquals(List.of(phrase), ids(serviceBookingService.searchBookingsByText("downhill", PageRequest.of(0, 10))));
+        assertThrows(IllegalArgumentException.class, () -> serviceBookingService.searchBookingsByText(" ", PageRequest.of(0, 10)));
+        assertThrows(IllegalArgumentException.class, () -> serviceBookingService.searchBookingsByText("the", PageRequest.of(0, 10)));
+    }
+
+    private Long book(String notes, List<Long> sparePartIds) {
+        ServiceBookingDTO dto = dto(notes, sparePartIds);
+        return new TransactionTemplate(transactionManager).execute(status -> serviceBookingService.createBooking(dto)).getId();
+    }
+
+    private ServiceBookingDTO dto(String notes, List<Long> sparePartIds) {
+        AppointmentSlot slot = new AppointmentSlot();
+        long offset = appointmentSlotRepository.count();
+        slot.setTechnician("Tech1");
+        slot.setStartTime(LocalDateTime.of(2030, 1, 1, 9, 0).plusHours(offset));
+        slot.setEndTime(LocalDateTime.of(2030, 1, 1, 10, 0).plusHours(offset));
+        slot.setAvailable(true);
+        ServiceBookingDTO dto = new ServiceBookingDTO();
+        dto.setCustomerId(customer.getId());
+        dto.setServiceTypeId(serviceType.getId());
+        dto.setAppointmentSlotId(appointmentSlotRepository.save(slot).getId());
+        dto.setStatus("PENDING");
+        dto.setTechnician("Tech1");
+        dto.setSparePartIds(sparePartIds);
+        dto.setNotes(notes);
+        return dto;
+    }
+
+    private List<Long> ids(Page<BookingSearchHit> hits) {
+        return hits.getContent().stream().map(hit -> hit.booking().id()).toList();
+    }
+}
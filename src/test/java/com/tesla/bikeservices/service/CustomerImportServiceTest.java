@@ -0,0 +1,104 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.dto.CustomerImportResult;
+import com.tesla.bikeservices.dto.ExportFormat;
+import com.tesla.bikeservices.repository.CustomerRepository;
+
+import jakarta.validation.Validation;
+
+// Runs without the per-test transaction: each import batch commits in its own transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerImportServiceTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerImportService customerImportService;
+
+    @BeforeEach
+    void setUp() {
+        customerImportService = new CustomerImportService(new CustomerService(customerRepository),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper().findAndRegisterModules(),
+                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testImportCustomers_CsvAcrossSeveralBatchesReportsBadLines() throws IOException {
+        StringBuilder csv = new StringBuilder("bikeModel,name,email,phone\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Tesla Bike X,Customer ").append(i).append(",customer").append(i).append("@example.com,+1555000")
+                    .append(String.format("%04d", i)).append('\n');
+        }
+        csv.append("Tesla Bike Y,\"Doe, Jane\",jane@example.com,12345\n");
+        csv.append("Tesla Bike Y,J,not-an-email,phone\n");
+        csv.append("Tesla Bike Y,\"Unterminated,x@example.com,123\n");
+
+        CustomerImportResult result = customerImportService.importCustomers(ExportFormat.CSV, stream(csv.toString()));
+
+        assertEquals(2501, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2501, customerRepository.count());
+        assertEquals(2503, result.getErrors().get(0).getLine());
+        assertEquals("email Invalid email format; name size must be between 2 and 100; phone Invalid phone number",
+                result.getErrors().get(0).getMessage());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Unreadable line"));
+        assertFalse(result.isErrorsTruncated());
+        assertTrue(result.getRowsPerSecond() > 0);
+        assertTrue(customerRepository.findAll().stream().anyMatch(customer -> "Doe, Jane".equals(customer.getName())));
+    }
+
+    @Test
+    void testImportCustomers_NdjsonSkipsBlankLinesAndIgnoresClientIds() throws IOException {
+        String ndjson = """
+                {"id": 999, "name": "John Doe", "email": "john@example.com", "phone": "1234567890", "bikeModel": "Tesla Bike X"}
+
+                {"name": "Jane Doe", "email": "jane@example.com", "phone": "9876543210", "bikeModel": "Tesla Bike Y"}
+                {"name": "Broken"
+                """;
+
+        CustomerImportResult result = customerImportService.importCustomers(ExportFormat.NDJSON, stream(ndjson));
+
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(4L), result.getErrors().stream().map(CustomerImportResult.LineError::getLine).toList());
+        assertFalse(customerRepository.existsById(999L));
+    }
+
+    @Test
+    void testImportCustomers_CsvWithoutRequiredColumnsIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> customerImportService.importCustomers(ExportFormat.CSV, stream("name,email\nJohn,john@example.com\n")));
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
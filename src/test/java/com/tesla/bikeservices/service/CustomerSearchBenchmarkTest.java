@@ -0,0 +1,150 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.repository.CustomerRepository;
+
+/**
+ * Times customer prefix search against growing tables, comparing the indexed UNION query with the old
+ * lower-cased OR scan, and measures the heap and lookup cost of the in-memory suggest index. Excluded from the default build; run with {@code mvn test -Pbenchmark}, choosing the
+ * table sizes with {@code -Dbenchmark.sizes=10000,100000,1000000,5000000}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerSearchBenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(CustomerSearchBenchmarkTest.class);
+    private static final int INSERT_BATCH = 10_000;
+    private static final int RUNS = 20;
+
+    private static final String LEGACY_SEARCH = "SELECT id FROM customer WHERE LOWER(name) LIKE LOWER(CONCAT(?, '%')) "
+            + "OR LOWER(email) LIKE LOWER(CONCAT(?, '%')) OR phone LIKE CONCAT(?, '%') LIMIT 20";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void benchmarkPrefixSearch() {
+        CustomerService customerService = new CustomerService(customerRepository);
+        int loaded = 0;
+        for (int size : sizes()) {
+            load(loaded, size);
+            loaded = size;
+            jdbcTemplate.execute("ANALYZE TABLE customer");
+
+            // Prefixes that select one customer, so the cost is the lookup itself rather than the result size
+            String name = "customer " + (size - 1) + " ";
+            String email = "c" + (size - 1) + "@";
+            String phone = String.valueOf(4_000_000_000L + size - 1);
+
+            double indexed = averageMillis(() -> {
+                Page<Customer> page = customerService
+                        .findAllCustomersByNameOrEmailOrPhone(name, email, phone, PageRequest.of(0, 20)).join();
+                assertEquals(1, page.getTotalElements());
+            });
+            double scanned = averageMillis(() -> assertEquals(1,
+                    jdbcTemplate.queryForList(LEGACY_SEARCH, Long.class, name, email, phone).size()));
+            logger.info("Customer prefix search over {} rows: indexed union {} ms, OR scan {} ms",
+                    size, String.format("%.3f", indexed), String.format("%.3f", scanned));
+        }
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT id FROM customer WHERE name_search LIKE 'customer 1%' "
+                + "UNION SELECT id FROM customer WHERE email_search LIKE 'c1%' "
+                + "UNION SELECT id FROM customer WHERE phone_search LIKE '41%'", String.class);
+        assertTrue(plan.contains("IDX_CUSTOMER_NAME_SEARCH") && plan.contains("IDX_CUSTOMER_EMAIL_SEARCH")
+                && plan.contains("IDX_CUSTOMER_PHONE_SEARCH"), plan);
+    }
+
+    @Test
+    void benchmarkSuggestIndex() {
+        for (int size : sizes()) {
+            System.gc();
+            long before = usedHeap();
+            CustomerSuggestIndex index = new CustomerSuggestIndex(size);
+            index.rebuild(consumer -> {
+                for (int i = 0; i < size; i++) {
+                    Customer customer = new Customer();
+                    customer.setId(i + 1L);
+                    customer.setName("Customer " + i + " Doe");
+                    customer.setEmail("c" + i + "@example.com");
+                    customer.setPhone("+" + (4_000_000_000L + i));
+                    consumer.accept(customer);
+                }
+            }, () -> size);
+            System.gc();
+            long bytesPerCustomer = (usedHeap() - before) / size;
+
+            String query = "customer " + (size / 2);
+            double micros = averageMillis(() -> assertTrue(index.suggest(query, 10).size() > 0)) * 1000;
+            logger.info("Customer suggest index over {} customers: {} bytes per customer, top-10 lookup {} us",
+                    size, bytesPerCustomer, String.format("%.1f", micros));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static List<Integer> sizes() {
+        return Arrays.stream(System.getProperty("benchmark.sizes", "10000,100000").split(","))
+                .map(String::trim).map(Integer::valueOf).sorted().toList();
+    }
+
+    // Plain JDBC batches: going through the entity manager would dominate the run at millions of rows
+    private void load(int from, int to) {
+        LocalDateTime createdAt = LocalDateTime.of(2030, 1, 1, 9, 0);
+        for (int start = from; start < to; start += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = start; i < Math.min(to, start + INSERT_BATCH); i++) {
+                String name = "Customer " + i + " Doe";
+                String email = "c" + i + "@example.com";
+                String phone = "+" + (4_000_000_000L + i);
+                rows.add(new Object[] {i + 1L, name, email, phone, "Tesla Bike X",
+                        Timestamp.valueOf(createdAt.plusSeconds(i)), Customer.searchKey(name),
+                        Customer.searchKey(email), Customer.phoneSearchKey(phone)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO customer (id, name, email, phone, bike_model, created_at, "
+                    + "name_search, email_search, phone_search) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static double averageMillis(Runnable search) {
+        search.run();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            search.run();
+        }
+        return (System.nanoTime() - startedAt) / 1_000_000.0 / RUNS;
+    }
+}
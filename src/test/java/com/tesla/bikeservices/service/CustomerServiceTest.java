@@ -2,9 +2,15 @@ package com.tesla.bikeservices.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +18,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.dto.CustomerSuggestion;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.entity.Customer;
 import com.tesla.bikeservices.repository.CustomerRepository;
 
@@ -45,7 +57,7 @@ class CustomerServiceTest {
         customer.setBikeModel("Tesla Bike X");
 
         // Act
-        Customer savedCustomer = customerService.createCustomer(customer);
+        Customer savedCustomer = customerService.createCustomer(customer).join();
 
         // Assert
         assertNotNull(savedCustomer.getId());
@@ -56,6 +68,19 @@ class CustomerServiceTest {
         // Note: Logger.info("Creating customer with email: {}") is called here
     }
 
+    @Test
+    void testCreateCustomer_IgnoresClientCreatedAt() throws Exception {
+        Customer customer = new ObjectMapper().findAndRegisterModules().readValue(
+                "{\"name\":\"John Doe\",\"email\":\"john@example.com\",\"phone\":\"1234567890\","
+                        + "\"bikeModel\":\"Tesla Bike X\",\"createdAt\":\"2000-01-01T00:00:00\"}", Customer.class);
+        assertNull(customer.getCreatedAt());
+
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        Customer savedCustomer = customerService.createCustomer(customer).join();
+
+        assertTrue(savedCustomer.getCreatedAt().isAfter(before));
+    }
+
     @Test
     void testGetCustomer_Success() {
         // Arrange
@@ -217,4 +242,148 @@ class CustomerServiceTest {
         customer2.setName("Jane Smith");
         customer2.setEmail("jane@example.com");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetCustomersAfter_WalksAllRowsByCursorIncludingTies() {
+        // Arrange: rows sharing a createdAt are ordered by ID, so none is skipped or repeated
+        LocalDateTime createdAt = LocalDateTime.of(2030, 1, 1, 9, 0);
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Customer customer = new Customer();
+            customer.setName("Customer " + i);
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setPhone("12345678" + i);
+            customer.setBikeModel("Tesla Bike X");
+            customer.setCreatedAt(createdAt.plusMinutes(i / 3));
+            expectedIds.add(customerRepository.save(customer).getId());
+        }
+
+        // Act
+        List<Long> seenIds = new ArrayList<>();
+        PageCursor cursor = PageCursor.decode("");
+        Slice<Customer> slice;
+        do {
+            slice = customerService.getCustomersAfter(cursor, 3);
+            slice.forEach(customer -> seenIds.add(customer.getId()));
+            Customer last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            cursor = PageCursor.decode(new PageCursor(last.getCreatedAt(), last.getId()).encode());
+        } while (slice.hasNext());
+
+        // Assert
+        assertEquals(expectedIds, seenIds);
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomersAfter(PageCursor.FIRST, 0));
+    }
+
+    @Test
+    void testFindAllCustomersByNameOrEmailOrPhone_MatchesNormalizedPrefixes() {
+        // Arrange
+        Customer john = customerRepository.save(customer("John Doe", "John.Doe@Example.com", "+1234567890"));
+        Customer percent = customerRepository.save(customer("100% Tesla", "fan@example.com", "9876543210"));
+        customerRepository.save(customer("Jane Smith", "jane@example.com", "5555555555"));
+
+        // Act & Assert: case and phone punctuation are ignored, typed wildcards are literal
+        assertEquals(List.of(john.getId()), ids(customerService.findAllCustomersByNameOrEmailOrPhone("  jOHN", null, null, pageable)));
+        assertEquals(List.of(john.getId()), ids(customerService.findAllCustomersByNameOrEmailOrPhone(null, "john.d", null, pageable)));
+        assertEquals(List.of(john.getId()), ids(customerService.findAllCustomersByNameOrEmailOrPhone(null, null, "123-45", pageable)));
+        assertEquals(List.of(percent.getId()), ids(customerService.findAllCustomersByNameOrEmailOrPhone("100%", null, null, pageable)));
+        assertEquals(List.of(), ids(customerService.findAllCustomersByNameOrEmailOrPhone("J_hn", null, "--", pageable)));
+
+        // A customer matching on several keys is returned once
+        Page<Customer> both = customerService.findAllCustomersByNameOrEmailOrPhone("john", "john", "1234", pageable).join();
+        assertEquals(1, both.getTotalElements());
+
+        // Search keys follow updates
+        Customer renamed = customer("Johanna Doe", "johanna@example.com", "2345678901");
+        customerService.updateCustomer(john.getId(), renamed);
+        customerRepository.flush();
+        assertEquals(List.of(), ids(customerService.findAllCustomersByNameOrEmailOrPhone("john ", null, null, pageable)));
+        assertEquals(List.of(john.getId()), ids(customerService.findAllCustomersByNameOrEmailOrPhone("joha", null, null, pageable)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testSuggestCustomers_FollowsCommittedChangesAndFallsBackPastTheBound() {
+        try {
+            customerRepository.save(customer("Jane van Dyke", "jane@example.com", "+15550100"));
+            customerService.buildSuggestIndex();
+
+            // Arrange: changes after the build reach the index incrementally
+            Customer john = customerService.createCustomer(customer("John Doe", "jd@example.com", "+15550199")).join();
+            customerService.saveAll(List.of(customer("Dora Doe", "dora@example.com", "+4470000")));
+
+            // Act & Assert: any word of the name, email or phone digits, top-k in key order
+            assertEquals(List.of("John Doe", "Dora Doe"), names(customerService.suggestCustomers("DO", 10)));
+            assertEquals(List.of("Jane van Dyke"), names(customerService.suggestCustomers("dyk", 10)));
+            assertEquals(List.of("Jane van Dyke", "John Doe"), names(customerService.suggestCustomers("+1 555-01", 10)));
+            assertEquals(1, customerService.suggestCustomers("+1 555-01", 1).size());
+            assertThrows(IllegalArgumentException.class, () -> customerService.suggestCustomers(" ", 10));
+            assertThrows(IllegalArgumentException.class, () -> customerService.suggestCustomers("jo", 51));
+
+            customerService.updateCustomer(john.getId(), customer("Jonas Berg", "jd@example.com", "+15550199"));
+            assertEquals(List.of("Dora Doe"), names(customerService.suggestCustomers("doe", 10)));
+            customerService.deleteCustomer(john.getId());
+            assertEquals(List.of(), names(customerService.suggestCustomers("jonas", 10)));
+
+            // A bound below the table size leaves suggestions to the database, with the same answers
+            CustomerService bounded = new CustomerService(customerRepository, 1);
+            bounded.buildSuggestIndex();
+            assertEquals(List.of("Dora Doe"), names(bounded.suggestCustomers("DOR", 10)));
+            assertEquals(List.of("Jane van Dyke"), names(bounded.suggestCustomers("+1 555-0100", 10)));
+        } finally {
+            customerRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    void testSuggestIndex_DropsChangesOlderThanTheIndexedVersion() {
+        CustomerSuggestIndex index = new CustomerSuggestIndex(10);
+        index.rebuild(consumer -> { }, () -> 0);
+
+        // The rename (version 2) commits first, then the callback of the update it replaced (version 1) runs
+        index.put(new CustomerSuggestion(1L, "Johanna Doe", "johanna@example.com", "2345678901"), 2L);
+        index.put(new CustomerSuggestion(1L, "John Doe", "john@example.com", "1234567890"), 1L);
+
+        assertEquals(List.of("Johanna Doe"), names(index.suggest("jo", 10)));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testReconcileSuggestIndex_RebuildsOnceCustomersFitAgain() {
+        CustomerService bounded = new CustomerService(customerRepository, 1);
+        try {
+            Customer jane = customerRepository.save(customer("Jane van Dyke", "jane@example.com", "+15550100"));
+            bounded.buildSuggestIndex();
+
+            // Outgrowing the bound drops the index; it is rebuilt once the customers fit again
+            Customer john = bounded.createCustomer(customer("John Doe", "jd@example.com", "+15550199")).join();
+            bounded.deleteCustomer(john.getId());
+            bounded.reconcileSuggestIndex();
+
+            // Deleted behind the service's back: the rebuilt index still answers until the next reconcile
+            customerRepository.deleteById(jane.getId());
+            assertEquals(List.of("Jane van Dyke"), names(bounded.suggestCustomers("jane", 10)));
+            bounded.reconcileSuggestIndex();
+            assertEquals(List.of(), names(bounded.suggestCustomers("jane", 10)));
+        } finally {
+            customerRepository.deleteAllInBatch();
+        }
+    }
+
+    private List<String> names(List<CustomerSuggestion> suggestions) {
+        return suggestions.stream().map(CustomerSuggestion::name).toList();
+    }
+
+    private List<Long> ids(CompletableFuture<Page<Customer>> result) {
+        return result.join().getContent().stream().map(Customer::getId).sorted().toList();
+    }
+
+    private Customer customer(String name, String email, String phone) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setPhone(phone);
+        customer.setBikeModel("Tesla Bike X");
+        return customer;
+    }
+}
@@ -0,0 +1,188 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.dto.ExportFormat;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+// Runs without the per-test transaction: partitions read committed rows from their own transactions
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportServiceTest {
+
+    @Autowired
+    private ServiceBookingRepository serviceBookingRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ServiceBookingService serviceBookingService = new ServiceBookingService(serviceBookingRepository,
+                customerRepository, new ServiceTypeService(serviceTypeRepository), new SparePartService(sparePartRepository),
+                new AppointmentSlotService(appointmentSlotRepository),
+                new OptimisticLockRetry(transactionManager, new SimpleMeterRegistry(), 4, 1, 10),
+                new BookingSearchService(serviceBookingRepository, transactionManager, ""));
+        exportService = new ExportService(serviceBookingRepository, customerRepository, serviceBookingService,
+                entityManager, transactionManager, objectMapper, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceBookingRepository.deleteAll();
+        sparePartRepository.deleteAllInBatch();
+        appointmentSlotRepository.deleteAllInBatch();
+        serviceTypeRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+        exportService.shutdown();
+    }
+
+    @Test
+    void testExportCustomers_PartitionedCsvMatchesSingleStream() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 1234; i++) {
+            customers.add(customer("Customer " + i));
+        }
+        customers.get(7).setName("Doe, \"Johnny\"");
+        customerRepository.saveAll(customers);
+
+        List<String> single = lines(export(ExportFormat.CSV, 1, false));
+        List<String> partitioned = lines(export(ExportFormat.CSV, 4, false));
+
+        assertEquals(1235, single.size());
+        assertEquals("id,name,email,phone,bikeModel,createdAt", single.get(0));
+        assertTrue(single.stream().anyMatch(line -> line.contains(",\"Doe, \"\"Johnny\"\"\",")));
+        assertEquals(single.get(0), partitioned.get(0));
+        assertEquals(single.subList(1, single.size()).stream().sorted().toList(),
+                partitioned.subList(1, partitioned.size()).stream().sorted().toList());
+    }
+
+    @Test
+    void testExportBookings_NdjsonCarriesAssociationsAndSpareParts() throws Exception {
+        Customer customer = customerRepository.save(customer("John Doe"));
+        ServiceType serviceType = new ServiceType();
+        serviceType.setName("Oil Change");
+        serviceType.setEstimatedDurationMinutes(30);
+        serviceType = serviceTypeRepository.save(serviceType);
+        SparePart sparePart = new SparePart();
+        sparePart.setPartName("Oil Filter");
+        sparePart.setPartNumber("OF-123");
+        sparePart.setQuantity(10);
+        sparePart.setPrice(15.0);
+        sparePart = sparePartRepository.save(sparePart);
+        for (int i = 0; i < 3; i++) {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setTechnician("Tech" + i);
+            slot.setStartTime(LocalDateTime.of(2030, 1, 1, 9, 0).plusHours(i));
+            slot.setEndTime(LocalDateTime.of(2030, 1, 1, 10, 0).plusHours(i));
+            ServiceBooking booking = new ServiceBooking();
+            booking.setCustomer(customer);
+            booking.setServiceType(serviceType);
+            booking.setAppointmentSlot(appointmentSlotRepository.save(slot));
+            booking.setStatus("PENDING");
+            booking.setSpareParts(new ArrayList<>(List.of(sparePart)));
+            serviceBookingRepository.save(booking);
+        }
+
+        List<String> lines = lines(export(ExportFormat.NDJSON, 2, true));
+
+        assertEquals(3, lines.size());
+        for (String line : lines) {
+            JsonNode booking = objectMapper.readTree(line);
+            assertEquals("John Doe", booking.get("customer").get("name").asText());
+            assertEquals("Oil Change", booking.get("serviceType").get("name").asText());
+            assertEquals(sparePart.getId(), booking.get("sparePartIds").get(0).asLong());
+        }
+        assertThrows(IllegalArgumentException.class, () -> exportService.validatePartitions(5));
+    }
+
+    @Test
+    void testExport_EmptyTableWritesOnlyTheHeader() {
+        assertEquals(List.of("id,name,email,phone,bikeModel,createdAt"), lines(export(ExportFormat.CSV, 1, false)));
+        assertEquals(List.of(), lines(export(ExportFormat.NDJSON, 3, true)));
+    }
+
+    @Test
+    void testSplit_CoversTheRangeWithoutGaps() {
+        assertEquals("[[1, 4], [5, 8], [9, 10]]", ranges(ExportService.split(1, 10, 3)));
+        assertEquals("[[5, 5]]", ranges(ExportService.split(5, 5, 4)));
+        assertEquals("[[1, 1], [2, 2]]", ranges(ExportService.split(1, 2, 8)));
+    }
+
+    private String export(ExportFormat format, int partitions, boolean bookings) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (bookings) {
+            exportService.exportBookings(format, partitions, out);
+        } else {
+            exportService.exportCustomers(format, partitions, out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<String> lines(String export) {
+        return export.isEmpty() ? List.of() : Arrays.asList(export.split("\r?\n"));
+    }
+
+    private String ranges(List<long[]> ranges) {
+        return ranges.stream().map(Arrays::toString).toList().toString();
+    }
+
+    private Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(name.replaceAll("\\W", "").toLowerCase() + "@example.com");
+        customer.setPhone("1234567890");
+        customer.setBikeModel("Tesla Bike X");
+        return customer;
+    }
+}
@@ -0,0 +1,134 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tesla.bikeservices.repository.IdempotencyRecordRepository;
+import com.tesla.bikeservices.response.ApiResponse;
+
+@DataJpaTest
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotencyService idempotencyService;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = newService(Duration.ofHours(1));
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void testExecute_ReplaysWithoutRunningAgain() {
+        ResponseEntity<ApiResponse<Map<String, Object>>> first = idempotencyService.execute("key-1", "bookings", "request", this::create);
+        ResponseEntity<ApiResponse<Map<String, Object>>> replay = idempotencyService.execute("key-1", "bookings", "request", this::create);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(first.getBody().getMessage(), replay.getBody().getMessage());
+        assertEquals(first.getBody().getTimestamp(), replay.getBody().getTimestamp());
+        assertEquals(1, ((JsonNode) (Object) replay.getBody().getData()).get("id").asInt());
+    }
+
+    @Test
+    void testExecute_WithoutKeyAlwaysRuns() {
+        idempotencyService.execute(null, "bookings", "request", this::create);
+        idempotencyService.execute(" ", "bookings", "request", this::create);
+
+        assertEquals(2, executions.get());
+        assertEquals(0, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void testExecute_FallsBackToPersistentRecord() {
+        idempotencyService.execute("key-1", "bookings", "request", this::create);
+
+        // A fresh instance has an empty memory store, like after a restart
+        ResponseEntity<ApiResponse<Map<String, Object>>> replay = newService(Duration.ofHours(1))
+                .execute("key-1", "bookings", "request", this::create);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, replay.getStatusCode());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest() {
+        idempotencyService.execute("key-1", "bookings", "request", this::create);
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("key-1", "bookings", "other request", this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_FailureIsNotRecorded() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-1", "bookings", "request", () -> {
+            throw new IllegalStateException("Selected appointment slot is not available");
+        }));
+
+        idempotencyService.execute("key-1", "bookings", "request", this::create);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecuteAsync_ConcurrentDuplicateWaitsForFirst() {
+        CompletableFuture<ResponseEntity<ApiResponse<Map<String, Object>>>> pending = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<ApiResponse<Map<String, Object>>>> first =
+                idempotencyService.executeAsync("key-1", "customers", List.of("Jane"), () -> pending);
+        CompletableFuture<ResponseEntity<ApiResponse<Map<String, Object>>>> duplicate =
+                idempotencyService.executeAsync("key-1", "customers", List.of("Jane"), () -> {
+                    throw new AssertionError("Duplicate must not run");
+                });
+
+        assertFalse(duplicate.isDone());
+        pending.complete(create());
+
+        assertEquals(HttpStatus.CREATED, first.join().getStatusCode());
+        assertEquals(HttpStatus.CREATED, duplicate.join().getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testPurgeExpired_RemovesExpiredRecords() {
+        IdempotencyService shortLived = newService(Duration.ofSeconds(-1));
+        shortLived.execute("key-1", "bookings", "request", this::create);
+
+        shortLived.purgeExpired();
+
+        assertEquals(0, idempotencyRecordRepository.count());
+        shortLived.execute("key-1", "bookings", "request", this::create);
+        assertEquals(2, executions.get());
+    }
+
+    private IdempotencyService newService(Duration ttl) {
+        return new IdempotencyService(idempotencyRecordRepository, objectMapper, ttl, 100);
+    }
+
+    private ResponseEntity<ApiResponse<Map<String, Object>>> create() {
+        int id = executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Booking created successfully", Map.of("id", id)));
+    }
+}
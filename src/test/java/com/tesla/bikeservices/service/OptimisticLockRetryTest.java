@@ -0,0 +1,79 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.tesla.bikeservices.entity.ServiceBooking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OptimisticLockRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PlatformTransactionManager transactionManager;
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        optimisticLockRetry = new OptimisticLockRetry(transactionManager, meterRegistry, 3, 1, 5);
+    }
+
+    @Test
+    void testExecute_RetriesInFreshTransactionsUntilWriteLands() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticLockRetry.execute("updateBooking", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(ServiceBooking.class, 1L);
+            }
+            return "updated";
+        });
+
+        assertEquals("updated", result);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        assertEquals(2.0, meterRegistry.counter("booking.optimistic.conflicts", "operation", "updateBooking").count());
+        assertEquals(2.0, meterRegistry.counter("booking.optimistic.retries", "operation", "updateBooking").count());
+    }
+
+    @Test
+    void testExecute_GivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticLockRetry.run("deleteBooking", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(ServiceBooking.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, meterRegistry.counter("booking.optimistic.conflicts", "operation", "deleteBooking").count());
+        assertEquals(1.0, meterRegistry.counter("booking.optimistic.exhausted", "operation", "deleteBooking").count());
+    }
+
+    @Test
+    void testExecute_OtherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> optimisticLockRetry.run("updateBooking", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Selected appointment slot is not available");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,104 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tesla.bikeservices.dto.RosterResult;
+import com.tesla.bikeservices.dto.RosterTemplateDTO;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RosterServiceTest {
+
+    // A Monday
+    private static final LocalDate WEEK_START = LocalDate.of(2030, 3, 4);
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    private AppointmentSlotService appointmentSlotService;
+    private RosterService rosterService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentSlotService = new AppointmentSlotService(appointmentSlotRepository);
+        appointmentSlotService.buildAvailabilityIndex();
+        rosterService = new RosterService(appointmentSlotService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentSlotRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testGenerateSlots_ExpandsWeekdaysAndSkipsClashes() {
+        AppointmentSlot existing = new AppointmentSlot();
+        existing.setTechnician("Tech1");
+        existing.setStartTime(WEEK_START.atTime(10, 15));
+        existing.setEndTime(WEEK_START.atTime(10, 45));
+        appointmentSlotRepository.save(existing);
+
+        RosterResult result = rosterService.generateSlots(template(List.of("Tech1", "Tech2", " Tech2 ")));
+
+        // 5 weekdays x 16 half-hour slots per technician; Tech1 loses 10:00 and 10:30 on Monday
+        assertEquals(158, result.getCreated());
+        assertEquals(2, result.getSkipped());
+        assertEquals(78, result.getCreatedByTechnician().get("Tech1"));
+        assertEquals(80, result.getCreatedByTechnician().get("Tech2"));
+        assertEquals(159, appointmentSlotRepository.count());
+        assertEquals(80, appointmentSlotService.getAvailableSlotsByTechnician("Tech2",
+                WEEK_START.atStartOfDay(), WEEK_START.plusDays(7).atStartOfDay()).size());
+    }
+
+    @Test
+    void testGenerateSlots_RerunSkipsEverything() {
+        rosterService.generateSlots(template(List.of("Tech1")));
+
+        RosterResult rerun = rosterService.generateSlots(template(List.of("Tech1")));
+
+        assertEquals(0, rerun.getCreated());
+        assertEquals(80, rerun.getSkipped());
+        assertEquals(80, appointmentSlotRepository.count());
+    }
+
+    @Test
+    void testGenerateSlots_InvalidTemplate() {
+        RosterTemplateDTO reversedHours = template(List.of("Tech1"));
+        reversedHours.setDayEnd(LocalTime.of(8, 0));
+        RosterTemplateDTO reversedDates = template(List.of("Tech1"));
+        reversedDates.setToDate(WEEK_START.minusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> rosterService.generateSlots(reversedHours));
+        assertThrows(IllegalArgumentException.class, () -> rosterService.generateSlots(reversedDates));
+        assertEquals(0, appointmentSlotRepository.count());
+    }
+
+    private RosterTemplateDTO template(List<String> technicians) {
+        RosterTemplateDTO template = new RosterTemplateDTO();
+        template.setTechnicians(technicians);
+        template.setDaysOfWeek(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        template.setDayStart(LocalTime.of(9, 0));
+        template.setDayEnd(LocalTime.of(17, 0));
+        template.setSlotMinutes(30);
+        template.setFromDate(WEEK_START);
+        template.setToDate(WEEK_START.plusDays(6));
+        return template;
+    }
+}
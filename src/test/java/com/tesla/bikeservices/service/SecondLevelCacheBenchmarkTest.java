@@ -0,0 +1,161 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tesla.bikeservices.dto.ServiceBookingDTO;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Times the booking read and write path, logging statements and second-level cache hits per operation. Run it
+ * once as is and once with the cache on to compare: {@code mvn test -Pbenchmark} and
+ * {@code mvn test -Pbenchmark -Dspring.profiles.active=l2cache}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheBenchmarkTest {
+
+    private static final Logger logger = LogManager.getLogger(SecondLevelCacheBenchmarkTest.class);
+    private static final int CUSTOMERS = 50;
+    private static final int BOOKINGS = 200;
+    private static final int RUNS = 2_000;
+
+    @Autowired
+    private ServiceBookingRepository serviceBookingRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        serviceBookingRepository.deleteAll();
+        sparePartRepository.deleteAllInBatch();
+        appointmentSlotRepository.deleteAllInBatch();
+        serviceTypeRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void benchmarkBookingPath() {
+        ServiceBookingService serviceBookingService = new ServiceBookingService(serviceBookingRepository,
+                customerRepository, new ServiceTypeService(serviceTypeRepository), new SparePartService(sparePartRepository),
+                new AppointmentSlotService(appointmentSlotRepository),
+                new OptimisticLockRetry(transactionManager, new SimpleMeterRegistry(), 4, 1, 10),
+                new BookingSearchService(serviceBookingRepository, transactionManager, ""));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> customerIds = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer customer = new Customer();
+            customer.setName("Customer " + i);
+            customer.setEmail("c" + i + "@example.com");
+            customer.setPhone("+1555000" + i);
+            customer.setBikeModel("Tesla Bike X");
+            customerIds.add(customerRepository.save(customer).getId());
+        }
+        ServiceType serviceType = new ServiceType();
+        serviceType.setName("Oil Change");
+        serviceType.setEstimatedDurationMinutes(30);
+        Long serviceTypeId = serviceTypeRepository.save(serviceType).getId();
+        SparePart sparePart = new SparePart();
+        sparePart.setPartName("Oil Filter");
+        sparePart.setPartNumber("OF-123");
+        sparePart.setQuantity(1_000_000);
+        sparePart.setPrice(15.0);
+        Long sparePartId = sparePartRepository.save(sparePart).getId();
+
+        List<ServiceBookingDTO> bookings = new ArrayList<>();
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setTechnician("Tech" + (i % 10));
+            slot.setStartTime(LocalDateTime.of(2030, 1, 1, 9, 0).plusHours(i));
+            slot.setEndTime(LocalDateTime.of(2030, 1, 1, 10, 0).plusHours(i));
+            slot.setAvailable(true);
+            ServiceBookingDTO dto = new ServiceBookingDTO();
+            dto.setCustomerId(customerIds.get(i % CUSTOMERS));
+            dto.setServiceTypeId(serviceTypeId);
+            dto.setAppointmentSlotId(appointmentSlotRepository.save(slot).getId());
+            dto.setStatus("PENDING");
+            dto.setTechnician(slot.getTechnician());
+            dto.setSparePartIds(List.of(sparePartId));
+            bookingIds.add(transactionTemplate.execute(status -> serviceBookingService.createBooking(dto)).getId());
+            bookings.add(dto);
+        }
+
+        String mode = entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions().isSecondLevelCacheEnabled()
+                ? "second-level cache on" : "second-level cache off";
+        measure(mode, "booking read", statistics, i -> {
+            assertEquals("PENDING", serviceBookingService.getBooking(bookingIds.get(i % BOOKINGS)).getStatus());
+        });
+        measure(mode, "reference lookups", statistics, i -> {
+            customerRepository.findById(customerIds.get(i % CUSTOMERS)).orElseThrow();
+            serviceTypeRepository.findById(serviceTypeId).orElseThrow();
+            sparePartRepository.findById(sparePartId).orElseThrow();
+        });
+        measure(mode, "booking update", statistics,
+                i -> serviceBookingService.updateBooking(bookingIds.get(i % BOOKINGS), bookings.get(i % BOOKINGS)));
+    }
+
+    private static void measure(String mode, String operation, Statistics statistics, IntConsumer run) {
+        for (int i = 0; i < RUNS / 10; i++) {
+            run.accept(i);
+        }
+        statistics.clear();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            run.accept(i);
+        }
+        double micros = (System.nanoTime() - startedAt) / 1_000.0 / RUNS;
+        logger.info("{}, {}: {} us, {} statements, {} cache hits, {} cache misses per operation", mode, operation,
+                String.format("%.1f", micros), String.format("%.2f", (double) statistics.getPrepareStatementCount() / RUNS),
+                String.format("%.2f", (double) statistics.getSecondLevelCacheHitCount() / RUNS),
+                String.format("%.2f", (double) statistics.getSecondLevelCacheMissCount() / RUNS));
+    }
+}
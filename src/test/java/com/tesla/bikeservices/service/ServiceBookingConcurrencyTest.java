@@ -0,0 +1,294 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tesla.bikeservices.dto.ServiceBookingDTO;
+import com.tesla.bikeservices.entity.AppointmentSlot;
+import com.tesla.bikeservices.entity.Customer;
+import com.tesla.bikeservices.entity.ServiceBooking;
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.exception.BookingConflictException;
+import com.tesla.bikeservices.repository.AppointmentSlotRepository;
+import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.ServiceBookingRepository;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// Runs without the per-test transaction so every claim commits on its own, like concurrent HTTP requests would
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ServiceBookingConcurrencyTest {
+
+    private static final int CONCURRENT_CLAIMS = 200;
+
+    @Autowired
+    private ServiceBookingRepository serviceBookingRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ServiceTypeService serviceTypeService;
+    private ServiceBookingService serviceBookingService;
+    private TransactionTemplate transactionTemplate;
+    private Customer customer;
+    private ServiceType serviceType;
+    private AppointmentSlot appointmentSlot;
+
+    @BeforeEach
+    void setUp() {
+        serviceTypeService = new ServiceTypeService(serviceTypeRepository);
+        serviceBookingService = new ServiceBookingService(
+                serviceBookingRepository,
+                customerRepository,
+                serviceTypeService,
+                new SparePartService(sparePartRepository),
+                new AppointmentSlotService(appointmentSlotRepository),
+                new OptimisticLockRetry(transactionManager, meterRegistry, 10, 1, 20),
+                new BookingSearchService(serviceBookingRepository, transactionManager, "")
+        );
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        customer = new Customer();
+        customer.setName("John Doe");
+        customer.setEmail("john@example.com");
+        customer.setPhone("1234567890");
+        customer.setBikeModel("Tesla Bike X");
+        customer = customerRepository.save(customer);
+
+        serviceType = new ServiceType();
+        serviceType.setName("Oil Change");
+        serviceType.setEstimatedDurationMinutes(30);
+        serviceType.setCost(50.0);
+        serviceType = serviceTypeRepository.save(serviceType);
+
+        appointmentSlot = new AppointmentSlot();
+        appointmentSlot.setStartTime(LocalDateTime.now().plusHours(1));
+        appointmentSlot.setEndTime(LocalDateTime.now().plusHours(2));
+        appointmentSlot.setTechnician("Tech1");
+        appointmentSlot.setAvailable(true);
+        appointmentSlot = appointmentSlotRepository.save(appointmentSlot);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceBookingRepository.deleteAllInBatch();
+        sparePartRepository.deleteAllInBatch();
+        appointmentSlotRepository.deleteAllInBatch();
+        serviceTypeRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testClaimSlot_ExactlyOneConcurrentClaimWins() throws Exception {
+        List<Object> outcomes = runConcurrently(() -> appointmentSlotRepository.claimSlot(appointmentSlot.getId()));
+
+        long wins = outcomes.stream().filter(outcome -> Integer.valueOf(1).equals(outcome)).count();
+        assertEquals(1, wins);
+        assertFalse(appointmentSlotRepository.findById(appointmentSlot.getId()).get().isAvailable());
+    }
+
+    @Test
+    void testCreateBooking_ExactlyOneConcurrentBookingPerSlot() throws Exception {
+        ServiceBookingDTO bookingDTO = bookingFor(appointmentSlot);
+
+        List<Object> outcomes = runConcurrently(
+                () -> transactionTemplate.execute(status -> serviceBookingService.createBooking(bookingDTO)));
+
+        long wins = outcomes.stream().filter(outcome -> !(outcome instanceof Throwable)).count();
+        assertEquals(1, wins);
+        outcomes.stream()
+                .filter(outcome -> outcome instanceof Throwable)
+                .forEach(outcome -> assertInstanceOf(IllegalStateException.class, outcome));
+        assertEquals(1, serviceBookingRepository.count());
+    }
+
+    @Test
+    void testCreateBooking_ConcurrentReservationsNeverOversellStock() throws Exception {
+        SparePart sparePart = new SparePart();
+        sparePart.setPartName("Oil Filter");
+        sparePart.setPartNumber("OF-123");
+        sparePart.setQuantity(5);
+        sparePart.setPrice(15.0);
+        sparePart = sparePartRepository.save(sparePart);
+
+        List<ServiceBookingDTO> bookings = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CLAIMS; i++) {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setStartTime(LocalDateTime.now().plusDays(1).plusMinutes(30L * i));
+            slot.setEndTime(LocalDateTime.now().plusDays(1).plusMinutes(30L * i + 30));
+            slot.setTechnician("Tech" + (i % 4));
+            ServiceBookingDTO bookingDTO = bookingFor(appointmentSlotRepository.save(slot));
+            bookingDTO.setSparePartIds(List.of(sparePart.getId()));
+            bookings.add(bookingDTO);
+        }
+        AtomicInteger next = new AtomicInteger();
+
+        List<Object> outcomes = runConcurrently(() -> transactionTemplate.execute(
+                status -> serviceBookingService.createBooking(bookings.get(next.getAndIncrement()))));
+
+        long wins = outcomes.stream().filter(outcome -> !(outcome instanceof Throwable)).count();
+        assertEquals(5, wins);
+        assertEquals(0, sparePartRepository.findById(sparePart.getId()).get().getQuantity());
+        assertEquals(5, serviceBookingRepository.count());
+    }
+
+    @Test
+    void testCreateBooking_StatementCount() {
+        // The service type check is served from the catalog cache once the type has been seen
+        serviceTypeService.getServiceType(serviceType.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Counted at commit, before the search index re-reads the booking in its own after-commit transaction
+        AtomicLong statements = new AtomicLong();
+        AtomicLong loads = new AtomicLong();
+        transactionTemplate.execute(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    statements.set(statistics.getPrepareStatementCount());
+                    loads.set(statistics.getEntityLoadCount());
+                }
+            });
+            return serviceBookingService.createBooking(bookingFor(appointmentSlot));
+        });
+
+        // Slot claim UPDATE + booking INSERT, plus at most one pooled sequence fetch; nothing is SELECTed
+        assertTrue(statements.get() <= 3, "Expected at most 3 statements but was " + statements.get());
+        assertEquals(0, loads.get());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void testCreateBooking_SlotTakenCostsNoInsert() {
+        appointmentSlotRepository.claimSlot(appointmentSlot.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.execute(
+                status -> serviceBookingService.createBooking(bookingFor(appointmentSlot))));
+
+        // Failed claim + existence check only
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void testUpdateBooking_ConcurrentUpdatesRetryInsteadOfFailing() throws Exception {
+        ServiceBooking booking = transactionTemplate.execute(
+                status -> serviceBookingService.createBooking(bookingFor(appointmentSlot)));
+        AtomicInteger next = new AtomicInteger();
+
+        List<Object> outcomes = runConcurrently(16, () -> {
+            ServiceBookingDTO update = bookingFor(appointmentSlot);
+            update.setNotes("Update " + next.incrementAndGet());
+            return serviceBookingService.updateBooking(booking.getId(), update);
+        });
+
+        // Every update either lands or reports a conflict with the current version; nothing else escapes
+        long applied = outcomes.stream().filter(ServiceBooking.class::isInstance).count();
+        outcomes.stream()
+                .filter(outcome -> !(outcome instanceof ServiceBooking))
+                .forEach(outcome -> assertInstanceOf(BookingConflictException.class, outcome));
+        assertEquals(applied, serviceBookingRepository.findVersionById(booking.getId()).get());
+        assertTrue(applied > 0);
+        assertEquals(meterRegistry.counter("booking.optimistic.conflicts", "operation", "updateBooking").count(),
+                meterRegistry.counter("booking.optimistic.retries", "operation", "updateBooking").count()
+                        + meterRegistry.counter("booking.optimistic.exhausted", "operation", "updateBooking").count());
+    }
+
+    private ServiceBookingDTO bookingFor(AppointmentSlot slot) {
+        ServiceBookingDTO bookingDTO = new ServiceBookingDTO();
+        bookingDTO.setCustomerId(customer.getId());
+        bookingDTO.setServiceTypeId(serviceType.getId());
+        bookingDTO.setAppointmentSlotId(slot.getId());
+        bookingDTO.setStatus("PENDING");
+        bookingDTO.setTechnician(slot.getTechnician());
+        return bookingDTO;
+    }
+
+    // Releases all tasks at once and returns each task's result, or the exception it failed with
+    private List<Object> runConcurrently(Callable<Object> task) throws InterruptedException {
+        return runConcurrently(CONCURRENT_CLAIMS, task);
+    }
+
+    private List<Object> runConcurrently(int tasks, Callable<Object> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return task.call();
+                }));
+            }
+            startGate.countDown();
+            List<Object> outcomes = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                try {
+                    outcomes.add(future.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    outcomes.add(e.getCause());
+                } catch (TimeoutException e) {
+                    outcomes.add(e);
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
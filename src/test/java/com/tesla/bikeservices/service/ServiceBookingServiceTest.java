@@ -1,31 +1,48 @@
 package com.tesla.bikeservices.service;
 
+import com.tesla.bikeservices.dto.BookingBatchResult;
+import com.tesla.bikeservices.dto.BookingSummary;
+import com.tesla.bikeservices.dto.PageCursor;
 import com.tesla.bikeservices.dto.ServiceBookingDTO;
 import com.tesla.bikeservices.entity.AppointmentSlot;
 import com.tesla.bikeservices.entity.Customer;
 import com.tesla.bikeservices.entity.ServiceBooking;
 import com.tesla.bikeservices.entity.ServiceType;
 import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.exception.PreconditionFailedException;
 import com.tesla.bikeservices.repository.AppointmentSlotRepository;
 import com.tesla.bikeservices.repository.CustomerRepository;
+import com.tesla.bikeservices.repository.FieldSelection;
 import com.tesla.bikeservices.repository.ServiceBookingRepository;
 import com.tesla.bikeservices.repository.ServiceTypeRepository;
 import com.tesla.bikeservices.repository.SparePartRepository;
+import com.tesla.bikeservices.repository.SparseFields;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ServiceBookingServiceTest {
 
     @Autowired
@@ -43,6 +60,12 @@ class ServiceBookingServiceTest {
     @Autowired
     private AppointmentSlotRepository appointmentSlotRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private ServiceBookingService serviceBookingService;
     private Pageable pageable;
     private Customer customer;
@@ -56,9 +79,11 @@ class ServiceBookingServiceTest {
         serviceBookingService = new ServiceBookingService(
                 serviceBookingRepository,
                 customerRepository,
-                serviceTypeRepository,
-                sparePartRepository,
-                appointmentSlotRepository
+                new ServiceTypeService(serviceTypeRepository),
+                new SparePartService(sparePartRepository),
+                new AppointmentSlotService(appointmentSlotRepository),
+                new OptimisticLockRetry(transactionManager, new SimpleMeterRegistry(), 4, 1, 10),
+                new BookingSearchService(serviceBookingRepository, transactionManager, "")
         );
 
         // Initialize pageable
@@ -164,6 +189,210 @@ class ServiceBookingServiceTest {
         // Note: Logger.info("Creating booking for customer ID: {}") is called here
     }
 
+    @Test
+    void testCreateBooking_SparePartShortageReservesNothing() {
+        // Arrange
+        SparePart emptyPart = new SparePart();
+        emptyPart.setPartName("Brake Pad");
+        emptyPart.setPartNumber("BP-456");
+        emptyPart.setQuantity(0);
+        emptyPart.setPrice(25.0);
+        emptyPart = sparePartRepository.save(emptyPart);
+
+        ServiceBookingDTO bookingDTO = new ServiceBookingDTO();
+        bookingDTO.setCustomerId(customer.getId());
+        bookingDTO.setServiceTypeId(serviceType.getId());
+        bookingDTO.setAppointmentSlotId(appointmentSlot.getId());
+        bookingDTO.setStatus("PENDING");
+        bookingDTO.setSparePartIds(List.of(sparePart.getId(), emptyPart.getId()));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> serviceBookingService.createBooking(bookingDTO));
+        assertEquals("Spare part out of stock: Brake Pad", exception.getMessage());
+        assertEquals(10, sparePartRepository.findById(sparePart.getId()).get().getQuantity());
+    }
+
+    @Test
+    void testCreateBooking_UnknownCustomerOrServiceType() {
+        // Arrange
+        ServiceBookingDTO bookingDTO = new ServiceBookingDTO();
+        bookingDTO.setCustomerId(999L);
+        bookingDTO.setServiceTypeId(serviceType.getId());
+        bookingDTO.setAppointmentSlotId(appointmentSlot.getId());
+        bookingDTO.setStatus("PENDING");
+
+        // Act & Assert
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> serviceBookingService.createBooking(bookingDTO));
+        assertEquals("Customer with ID 999 not found", exception.getMessage());
+
+        // The failed attempt still claimed the slot inside the test transaction
+        AppointmentSlot otherSlot = new AppointmentSlot();
+        otherSlot.setStartTime(LocalDateTime.now().plusHours(3));
+        otherSlot.setEndTime(LocalDateTime.now().plusHours(4));
+        otherSlot.setTechnician("Tech1");
+        otherSlot.setAvailable(true);
+        otherSlot = appointmentSlotRepository.save(otherSlot);
+
+        bookingDTO.setCustomerId(customer.getId());
+        bookingDTO.setServiceTypeId(999L);
+        bookingDTO.setAppointmentSlotId(otherSlot.getId());
+        exception = assertThrows(EntityNotFoundException.class, () -> serviceBookingService.createBooking(bookingDTO));
+        assertEquals("Service type with ID 999 not found", exception.getMessage());
+    }
+
+    @Test
+    void testCreateBooking_OtherIntegrityErrorsAreNotReportedAsNotFound() {
+        // Arrange: the slot is still marked available but already has a booking
+        ServiceBooking existing = new ServiceBooking();
+        existing.setCustomer(customer);
+        existing.setServiceType(serviceType);
+        existing.setAppointmentSlot(appointmentSlot);
+        existing.setStatus("PENDING");
+        serviceBookingRepository.saveAndFlush(existing);
+
+        ServiceBookingDTO bookingDTO = new ServiceBookingDTO();
+        bookingDTO.setCustomerId(customer.getId());
+        bookingDTO.setServiceTypeId(serviceType.getId());
+        bookingDTO.setAppointmentSlotId(appointmentSlot.getId());
+        bookingDTO.setStatus("PENDING");
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> serviceBookingService.createBooking(bookingDTO));
+    }
+
+    @Test
+    void testUpdateBooking_ExchangesSpareParts() {
+        // Arrange
+        SparePart chain = new SparePart();
+        chain.setPartName("Chain");
+        chain.setPartNumber("CH-789");
+        chain.setQuantity(5);
+        chain.setPrice(40.0);
+        chain = sparePartRepository.save(chain);
+
+        ServiceBookingDTO bookingDTO = new ServiceBookingDTO();
+        bookingDTO.setCustomerId(customer.getId());
+        bookingDTO.setServiceTypeId(serviceType.getId());
+        bookingDTO.setAppointmentSlotId(appointmentSlot.getId());
+        bookingDTO.setStatus("PENDING");
+        bookingDTO.setSparePartIds(List.of(sparePart.getId()));
+        ServiceBooking savedBooking = serviceBookingService.createBooking(bookingDTO);
+
+        bookingDTO.setStatus("INPROGRESS");
+        bookingDTO.setSparePartIds(List.of(chain.getId()));
+
+        // Act
+        ServiceBooking updatedBooking = serviceBookingService.updateBooking(savedBooking.getId(), bookingDTO);
+
+        // Assert
+        assertEquals("INPROGRESS", updatedBooking.getStatus());
+        assertEquals(1, updatedBooking.getSpareParts().size());
+        assertEquals(chain.getId(), updatedBooking.getSpareParts().get(0).getId());
+        assertEquals(10, sparePartRepository.findById(sparePart.getId()).get().getQuantity());
+        assertEquals(4, sparePartRepository.findById(chain.getId()).get().getQuantity());
+        assertFalse(appointmentSlotRepository.findById(appointmentSlot.getId()).get().isAvailable());
+    }
+
+    @Test
+    void testUpdateBooking_IfMatchChecksBookingTag() {
+        // Arrange
+        ServiceBookingDTO bookingDTO = new ServiceBookingDTO();
+        bookingDTO.setCustomerId(customer.getId());
+        bookingDTO.setServiceTypeId(serviceType.getId());
+        bookingDTO.setAppointmentSlotId(appointmentSlot.getId());
+        bookingDTO.setStatus("PENDING");
+        bookingDTO.setSparePartIds(List.of(sparePart.getId()));
+        Long id = serviceBookingService.createBooking(bookingDTO).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        // The versions-only query and the loaded booking agree: booking, customer, service type, claimed slot, part
+        String tag = serviceBookingService.getBookingTag(id);
+        assertEquals("\"0.0.0.1.1\"", tag);
+        assertEquals(tag, serviceBookingService.tagOf(serviceBookingService.getBooking(id)));
+
+        // Act
+        bookingDTO.setStatus("INPROGRESS");
+        ServiceBooking updatedBooking = serviceBookingService.updateBooking(id, bookingDTO, tag);
+
+        // Assert: the re-reserved part moved on too, and the returned booking already carries the new tag
+        assertEquals("\"1.0.0.1.3\"", serviceBookingService.tagOf(updatedBooking));
+        assertEquals(serviceBookingService.tagOf(updatedBooking), serviceBookingService.getBookingTag(id));
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class,
+                () -> serviceBookingService.updateBooking(id, bookingDTO, tag));
+        assertEquals("\"1.0.0.1.3\"", exception.getCurrentTag());
+        assertThrows(EntityNotFoundException.class, () -> serviceBookingService.getBookingTag(999L));
+    }
+
+    @Test
+    void testCreateBookings_ReportsPartialFailures() {
+        // Arrange
+        AppointmentSlot secondSlot = new AppointmentSlot();
+        secondSlot.setStartTime(LocalDateTime.now().plusHours(3));
+        secondSlot.setEndTime(LocalDateTime.now().plusHours(4));
+        secondSlot.setTechnician("Tech2");
+        secondSlot = appointmentSlotRepository.save(secondSlot);
+
+        ServiceBookingDTO first = new ServiceBookingDTO();
+        first.setCustomerId(customer.getId());
+        first.setServiceTypeId(serviceType.getId());
+        first.setAppointmentSlotId(appointmentSlot.getId());
+        first.setStatus("PENDING");
+        first.setSparePartIds(List.of(sparePart.getId()));
+
+        ServiceBookingDTO sameSlot = new ServiceBookingDTO();
+        sameSlot.setCustomerId(customer.getId());
+        sameSlot.setServiceTypeId(serviceType.getId());
+        sameSlot.setAppointmentSlotId(appointmentSlot.getId());
+        sameSlot.setStatus("PENDING");
+
+        ServiceBookingDTO unknownCustomer = new ServiceBookingDTO();
+        unknownCustomer.setCustomerId(999L);
+        unknownCustomer.setServiceTypeId(serviceType.getId());
+        unknownCustomer.setAppointmentSlotId(secondSlot.getId());
+        unknownCustomer.setStatus("PENDING");
+
+        ServiceBookingDTO second = new ServiceBookingDTO();
+        second.setCustomerId(customer.getId());
+        second.setServiceTypeId(serviceType.getId());
+        second.setAppointmentSlotId(secondSlot.getId());
+        second.setStatus("PENDING");
+        second.setSparePartIds(List.of(sparePart.getId()));
+
+        // Act
+        List<BookingBatchResult> results = serviceBookingService.createBookings(List.of(first, sameSlot, unknownCustomer, second));
+
+        // Assert
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Selected appointment slot is not available", results.get(1).getMessage());
+        assertEquals("Customer with ID 999 not found", results.get(2).getMessage());
+        assertTrue(results.get(3).isSuccess());
+        assertNotNull(results.get(3).getBookingId());
+        assertEquals(2, serviceBookingRepository.count());
+        assertEquals(8, sparePartRepository.findById(sparePart.getId()).get().getQuantity());
+        assertFalse(appointmentSlotRepository.findById(secondSlot.getId()).get().isAvailable());
+    }
+
+    @Test
+    void testCreateBookings_NullItemGetsItsOwnError() {
+        ServiceBookingDTO valid = new ServiceBookingDTO();
+        valid.setCustomerId(customer.getId());
+        valid.setServiceTypeId(serviceType.getId());
+        valid.setAppointmentSlotId(appointmentSlot.getId());
+        valid.setStatus("PENDING");
+        valid.setSparePartIds(List.of(sparePart.getId()));
+
+        List<BookingBatchResult> results = serviceBookingService.createBookings(Arrays.asList(valid, null));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Booking is mandatory", results.get(1).getMessage());
+        assertEquals(1, serviceBookingRepository.count());
+    }
+
     @Test
     void testGetBooking_Success() {
         // Arrange
@@ -233,7 +462,7 @@ class ServiceBookingServiceTest {
     @Test
     void testGetAllBookings_EmptyPage() {
         // Act
-        Page<ServiceBooking> result = serviceBookingService.getAllBookings(pageable);
+        Page<BookingSummary> result = serviceBookingService.getAllBookings(pageable);
 
         // Assert
         assertNotNull(result);
@@ -241,10 +470,112 @@ class ServiceBookingServiceTest {
         assertEquals(0, result.getContent().size());
         // Note: Logger.debug("Fetching all bookings with pagination: page={}, size={}") is called here
     }
+    @Test
+    void testGetBookings_FieldsReadOnlySelectedColumns() {
+        ServiceBooking booking = new ServiceBooking();
+        booking.setCustomer(customer);
+        booking.setServiceType(serviceType);
+        booking.setAppointmentSlot(appointmentSlot);
+        booking.setStatus("PENDING");
+        booking.setTechnician("Tech1");
+        booking.setSpareParts(new ArrayList<>(List.of(sparePart)));
+        booking.getStatusHistory().add("PENDING");
+        booking = serviceBookingRepository.save(booking);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        FieldSelection<ServiceBooking> fields = SparseFields.SERVICE_BOOKINGS.select("status, technician, appointmentSlot.startTime");
+
+        statistics.clear();
+        Page<Map<String, Object>> page = serviceBookingService.getAllBookings(fields, pageable);
+        // A single select (a short first page needs no count); no entity, collection or spare part lookup
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        // Only the slot is joined, for its start time
+        String query = statistics.getQueries()[0];
+        assertTrue(query.contains("join appointment_slot"));
+        assertFalse(query.contains("customer") || query.contains("service_type") || query.contains("notes"));
+        Map<String, Object> row = page.getContent().get(0);
+        // IDs are always included, for the entity and for each association a field is picked from
+        assertEquals(List.of("id", "status", "technician", "appointmentSlot"), List.copyOf(row.keySet()));
+        Map<?, ?> slot = (Map<?, ?>) row.get("appointmentSlot");
+        assertEquals(Set.of("id", "startTime"), slot.keySet());
+        assertEquals(appointmentSlot.getId(), slot.get("id"));
+
+        Map<String, Object> customerOnly = serviceBookingService.getBooking(booking.getId(),
+                SparseFields.SERVICE_BOOKINGS.select("customer"));
+        assertEquals("John Doe", ((Map<?, ?>) customerOnly.get("customer")).get("name"));
+        assertEquals(Set.of("id", "customer"), customerOnly.keySet());
+
+        Slice<Map<String, Object>> slice = serviceBookingService.getBookingsAfter(fields, PageCursor.FIRST, 10);
+        // Keyset rows carry createdAt for the next cursor
+        assertNotNull(slice.getContent().get(0).get("createdAt"));
+        assertEquals(1, serviceBookingService.getBookingsByStatus("PENDING", fields).size());
+        assertThrows(IllegalArgumentException.class, () -> SparseFields.SERVICE_BOOKINGS.select("statusHistory"));
+        assertThrows(EntityNotFoundException.class, () -> serviceBookingService.getBooking(999L, fields));
+    }
+
+    @Test
+    void testListEndpoints_LoadAPageWithAConstantNumberOfQueries() {
+        for (int i = 0; i < 12; i++) {
+            AppointmentSlot slot = new AppointmentSlot();
+            slot.setStartTime(LocalDateTime.now().plusDays(i + 1));
+            slot.setEndTime(LocalDateTime.now().plusDays(i + 1).plusHours(1));
+            slot.setTechnician("Tech" + i);
+            slot.setAvailable(false);
+            ServiceBooking booking = new ServiceBooking();
+            booking.setCustomer(customer);
+            booking.setServiceType(serviceType);
+            booking.setAppointmentSlot(appointmentSlotRepository.save(slot));
+            booking.setStatus(i % 2 == 0 ? "PENDING" : "COMPLETED");
+            booking.setTechnician("Tech" + i);
+            booking.setSpareParts(new ArrayList<>(List.of(sparePart)));
+            booking.getStatusHistory().add("PENDING");
+            serviceBookingRepository.save(booking);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        Page<BookingSummary> page = serviceBookingService.getAllBookings(pageable);
+        // Page select, count and one spare part lookup for the whole page
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(10, page.getContent().size());
+        assertEquals(12, page.getTotalElements());
+        BookingSummary first = page.getContent().get(0);
+        assertEquals("John Doe", first.customer().name());
+        assertEquals("Oil Change", first.serviceType().name());
+        assertNotNull(first.appointmentSlot().startTime());
+        assertEquals(List.of(sparePart.getId()), first.sparePartIds());
+
+        statistics.clear();
+        List<BookingSummary> pending = serviceBookingService.getBookingsByStatus("PENDING");
+        List<BookingSummary> byCustomer = serviceBookingService.getBookingsByCustomer(customer.getId());
+        Page<BookingSummary> search = serviceBookingService.searchBookingsByCriteria("COMPLETED", "Tech", "jOHN", pageable);
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(6, pending.size());
+        assertEquals(12, byCustomer.size());
+        assertEquals(6, search.getTotalElements());
+
+        // Cursor mode reads one row past the page instead of counting
+        statistics.clear();
+        Slice<BookingSummary> firstSlice = serviceBookingService.getBookingsAfter(PageCursor.FIRST, 10);
+        BookingSummary last = firstSlice.getContent().get(9);
+        Slice<BookingSummary> secondSlice = serviceBookingService.getBookingsAfter(new PageCursor(last.createdAt(), last.id()), 10);
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertTrue(firstSlice.hasNext());
+        assertEquals(2, secondSlice.getNumberOfElements());
+        assertFalse(secondSlice.hasNext());
+        assertEquals(List.of(sparePart.getId()), secondSlice.getContent().get(0).sparePartIds());
+        assertEquals(3, serviceBookingService.searchBookingsByCriteriaAfter("COMPLETED", "Tech", "jOHN", PageCursor.FIRST, 3).getNumberOfElements());
+    }
+
     @Test
     void testGetBookingsByCustomer_EmptyResult() {
         // Act
-        List<ServiceBooking> result = serviceBookingService.getBookingsByCustomer(999L);
+        List<BookingSummary> result = serviceBookingService.getBookingsByCustomer(999L);
 
         // Assert
         assertNotNull(result);
@@ -407,6 +738,43 @@ class ServiceBookingServiceTest {
 	 * debug("Searching bookings with status={}, technicianPrefix={}, customerPrefix={}"
 	 * ) is called here }
 	 */
+    @Test
+    void testSearchBookingsByCriteria_AndsOnlySuppliedCriteria() {
+        // Arrange
+        Customer jane = new Customer();
+        jane.setName("Jane Roe");
+        jane.setEmail("roe@example.com");
+        jane.setPhone("9876543210");
+        jane.setBikeModel("Tesla Bike Y");
+        jane = customerRepository.save(jane);
+        for (int i = 0; i < 8; i++) {
+            ServiceBooking booking = new ServiceBooking();
+            booking.setCustomer(i % 2 == 0 ? customer : jane);
+            booking.setServiceType(serviceType);
+            booking.setStatus(i < 4 ? "PENDING" : "COMPLETED");
+            booking.setTechnician(i % 4 < 2 ? "Tech1" : "Mechanic_" + i);
+            booking.setCreatedAt(LocalDateTime.of(2030, 1, 1, 9, 0).plusMinutes(i));
+            serviceBookingRepository.save(booking);
+        }
+
+        // Act & Assert: every supplied criterion must hold, missing or blank ones are ignored
+        assertEquals(8, serviceBookingService.searchBookingsByCriteria(null, null, null, pageable).getTotalElements());
+        assertEquals(4, serviceBookingService.searchBookingsByCriteria("PENDING", " ", null, pageable).getTotalElements());
+        assertEquals(2, serviceBookingService.searchBookingsByCriteria("PENDING", "Tech", null, pageable).getTotalElements());
+        assertEquals(1, serviceBookingService.searchBookingsByCriteria("PENDING", "Tech", "JOHN", pageable).getTotalElements());
+        assertEquals(2, serviceBookingService.searchBookingsByCriteria("COMPLETED", null, "roe@", pageable).getTotalElements());
+        assertEquals(0, serviceBookingService.searchBookingsByCriteria(null, "Mechanic%", null, pageable).getTotalElements());
+        assertEquals(4, serviceBookingService.searchBookingsByCriteria(null, "Mechanic_", null, pageable).getTotalElements());
+
+        // Pages follow creation order, and the cursor form walks the same rows
+        List<BookingSummary> completed = serviceBookingService.searchBookingsByCriteria("COMPLETED", null, null, pageable).getContent();
+        assertEquals(List.of("Tech1", "Tech1", "Mechanic_6", "Mechanic_7"), completed.stream().map(BookingSummary::technician).toList());
+        Slice<BookingSummary> after = serviceBookingService.searchBookingsByCriteriaAfter("COMPLETED", null, null,
+                new PageCursor(completed.get(1).createdAt(), completed.get(1).id()), 10);
+        assertEquals(completed.subList(2, 4).stream().map(BookingSummary::id).toList(),
+                after.getContent().stream().map(BookingSummary::id).toList());
+    }
+
     @Test
     void testSearchBookingsByCriteria_NullParameters() {
         // Arrange
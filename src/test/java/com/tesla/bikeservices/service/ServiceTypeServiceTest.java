@@ -0,0 +1,104 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.tesla.bikeservices.entity.ServiceType;
+import com.tesla.bikeservices.repository.ServiceTypeRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+
+class ServiceTypeServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ServiceTypeRepository serviceTypeRepository;
+    private ServiceTypeService serviceTypeService;
+    private ServiceType oilChange;
+
+    @BeforeEach
+    void setUp() {
+        serviceTypeRepository = mock(ServiceTypeRepository.class);
+        serviceTypeService = new ServiceTypeService(serviceTypeRepository, meterRegistry, 100, Duration.ofMinutes(10));
+        oilChange = new ServiceType();
+        oilChange.setId(1L);
+        oilChange.setName("Oil Change");
+        oilChange.setEstimatedDurationMinutes(30);
+        when(serviceTypeRepository.findById(1L)).thenReturn(Optional.of(oilChange));
+        when(serviceTypeRepository.save(any(ServiceType.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testGetServiceType_ServedFromCacheUntilUpdated() {
+        assertSame(oilChange, serviceTypeService.getServiceType(1L));
+        assertSame(oilChange, serviceTypeService.getServiceType(1L));
+        serviceTypeService.getReference(1L);
+        verify(serviceTypeRepository, times(1)).findById(1L);
+
+        ServiceType details = new ServiceType();
+        details.setName("Full Service");
+        details.setEstimatedDurationMinutes(90);
+        serviceTypeService.updateServiceType(1L, details);
+        serviceTypeService.getServiceType(1L);
+
+        // Once for the update itself and once more for the invalidated cache entry
+        verify(serviceTypeRepository, times(3)).findById(1L);
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "serviceTypes").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "serviceTypes").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testGetServiceType_MissingIsNotCached() {
+        when(serviceTypeRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> serviceTypeService.getServiceType(2L));
+        assertThrows(EntityNotFoundException.class, () -> serviceTypeService.getReference(2L));
+
+        verify(serviceTypeRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void testFindExistingIds_LooksUpOnlyUncachedIds() {
+        ServiceType tuneUp = new ServiceType();
+        tuneUp.setId(3L);
+        when(serviceTypeRepository.findAllById(Set.of(3L, 4L))).thenReturn(List.of(tuneUp));
+        serviceTypeService.getServiceType(1L);
+
+        assertEquals(Set.of(1L, 3L), serviceTypeService.findExistingIds(Set.of(1L, 3L, 4L)));
+        verify(serviceTypeRepository).findAllById(Set.of(3L, 4L));
+    }
+
+    @Test
+    void testGetAllServiceTypes_PagesInvalidatedByWrites() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<ServiceType> page = new PageImpl<>(List.of(oilChange), pageable, 1);
+        when(serviceTypeRepository.findAll(pageable)).thenReturn(page);
+
+        assertSame(page, serviceTypeService.getAllServiceTypes(pageable));
+        assertSame(page, serviceTypeService.getAllServiceTypes(pageable));
+        verify(serviceTypeRepository, times(1)).findAll(pageable);
+
+        serviceTypeService.createServiceType(new ServiceType());
+        serviceTypeService.getAllServiceTypes(pageable);
+        serviceTypeService.deleteServiceType(1L);
+        serviceTypeService.getAllServiceTypes(pageable);
+        verify(serviceTypeRepository, times(3)).findAll(pageable);
+    }
+}
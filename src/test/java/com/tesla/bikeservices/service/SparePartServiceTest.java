@@ -0,0 +1,108 @@
+package com.tesla.bikeservices.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tesla.bikeservices.entity.SparePart;
+import com.tesla.bikeservices.repository.SparePartRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+
+// Runs without the per-test transaction: cache entries are only invalidated once stock changes commit
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SparePartServiceTest {
+
+    @Autowired
+    private SparePartRepository sparePartRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SparePartService sparePartService;
+    private SparePart oilFilter;
+
+    @BeforeEach
+    void setUp() {
+        sparePartService = new SparePartService(sparePartRepository);
+        oilFilter = new SparePart();
+        oilFilter.setPartName("Oil Filter");
+        oilFilter.setPartNumber("OF-123");
+        oilFilter.setQuantity(5);
+        oilFilter.setPrice(15.0);
+        oilFilter = sparePartRepository.save(oilFilter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sparePartRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testGetSparePartByNumber_ServedFromCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertEquals(oilFilter.getId(), sparePartService.getSparePartByNumber("OF-123").getId());
+
+        statistics.clear();
+        assertEquals("Oil Filter", sparePartService.getSparePartByNumber("OF-123").getPartName());
+        assertEquals(5, sparePartService.getSparePart(oilFilter.getId()).getQuantity());
+        sparePartService.getAllSpareParts(PageRequest.of(0, 10));
+        sparePartService.getAllSpareParts(PageRequest.of(0, 10));
+
+        // Only the first page read reaches the database, and a short first page needs no count
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertThrows(EntityNotFoundException.class, () -> sparePartService.getSparePartByNumber("XX-000"));
+    }
+
+    @Test
+    void testStockChanges_InvalidateCachedParts() {
+        assertEquals(5, sparePartService.getSparePartByNumber("OF-123").getQuantity());
+        assertEquals(5, sparePartService.getAllSpareParts(PageRequest.of(0, 10)).getContent().get(0).getQuantity());
+
+        // Booking flows reserve and release stock inside their own transactions
+        new TransactionTemplate(transactionManager).execute(status -> sparePartService.reserveParts(List.of(oilFilter.getId())));
+        assertEquals(4, sparePartService.getSparePartByNumber("OF-123").getQuantity());
+        assertEquals(4, sparePartService.getAllSpareParts(PageRequest.of(0, 10)).getContent().get(0).getQuantity());
+
+        sparePartService.updateStock(oilFilter.getId(), 9);
+        assertEquals(9, sparePartService.getSparePart(oilFilter.getId()).getQuantity());
+
+        // A rolled back reservation leaves the cached stock level alone
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            sparePartService.reserveParts(List.of(oilFilter.getId()));
+            throw new IllegalStateException("Selected appointment slot is not available");
+        }));
+        assertEquals(9, sparePartService.getSparePart(oilFilter.getId()).getQuantity());
+
+        SparePart renumbered = new SparePart();
+        renumbered.setPartName("Oil Filter XL");
+        renumbered.setPartNumber("OF-124");
+        renumbered.setQuantity(9);
+        renumbered.setPrice(18.0);
+        sparePartService.updateSparePart(oilFilter.getId(), renumbered);
+        assertEquals("Oil Filter XL", sparePartService.getSparePartByNumber("OF-124").getPartName());
+        assertThrows(EntityNotFoundException.class, () -> sparePartService.getSparePartByNumber("OF-123"));
+
+        sparePartService.deleteSparePart(oilFilter.getId());
+        assertThrows(EntityNotFoundException.class, () -> sparePartService.getSparePartByNumber("OF-124"));
+    }
+}